@@ -0,0 +1,47 @@
+plugins {
+  java
+  id("me.champeau.gradle.jmh") version "0.4.8"
+}
+
+val vertxVersion = "3.6.3"
+
+/*
+ * Benchmarks run against step8, the last step with every hot path in one place: server-side templates, the JSON
+ * API and the database service proxy.
+ */
+dependencies {
+  jmh(project(":step8"))
+  jmh("io.vertx:vertx-core:$vertxVersion")
+  jmh("io.vertx:vertx-web:$vertxVersion")
+  jmh("io.vertx:vertx-web-templ-freemarker:$vertxVersion")
+  jmh("io.vertx:vertx-jdbc-client:$vertxVersion")
+  jmh("io.vertx:vertx-service-proxy:$vertxVersion")
+  jmh("io.vertx:vertx-rx-java2:$vertxVersion")
+  jmh("com.github.rjeschke:txtmark:0.13")
+  jmh("org.hsqldb:hsqldb:2.3.4")
+}
+
+java {
+  sourceCompatibility = JavaVersion.VERSION_1_8
+}
+
+val gitCommit: String by lazy {
+  val output = java.io.ByteArrayOutputStream()
+  exec {
+    commandLine("git", "rev-parse", "--short", "HEAD")
+    standardOutput = output
+    isIgnoreExitValue = true
+  }
+  output.toString().trim().ifEmpty { "unknown" }
+}
+
+// Run with: ./gradlew :benchmarks:jmh [-Pjmh.include=<regexp>]
+jmh {
+  jmhVersion = "1.21"
+  include = listOf(project.findProperty("jmh.include")?.toString() ?: ".*")
+  fork = 1
+  warmupIterations = 3
+  iterations = 5
+  resultFormat = "JSON"
+  resultsFile = project.file("$buildDir/reports/jmh/results-$gitCommit.json")
+}
@@ -0,0 +1,37 @@
+package io.vertx.wiki.benchmarks;
+
+import com.github.rjeschke.txtmark.Processor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Markdown rendering, as done on every page view that misses the render cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarkdownBenchmark {
+
+  @Param({"1024", "16384", "262144"})
+  public int size;
+
+  private String markdown;
+
+  @Setup
+  public void prepare() {
+    markdown = SampleMarkdown.page(size, 42);
+  }
+
+  @Benchmark
+  public String process() {
+    return Processor.process(markdown);
+  }
+}
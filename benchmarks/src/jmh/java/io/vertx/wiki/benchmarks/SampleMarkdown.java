@@ -0,0 +1,84 @@
+package io.vertx.wiki.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic markdown resembling wiki pages: headings, paragraphs with emphasis and links to other pages, lists
+ * and code blocks.
+ */
+public final class SampleMarkdown {
+
+  private static final String[] WORDS = {
+    "vert.x", "verticle", "event", "loop", "bus", "handler", "future", "wiki", "page", "markdown", "render", "query",
+    "database", "service", "proxy", "router", "request", "response", "the", "a", "of", "to", "and", "is", "with"
+  };
+
+  private SampleMarkdown() {
+  }
+
+  /**
+   * @return a page of at least {@code size} characters
+   */
+  public static String page(int size, long seed) {
+    Random random = new Random(seed);
+    StringBuilder markdown = new StringBuilder(size + 256);
+    markdown.append("# Page ").append(seed).append("\n\n");
+    int section = 0;
+    while (markdown.length() < size) {
+      switch (section++ % 4) {
+        case 0:
+          markdown.append("## Section ").append(section).append("\n\n");
+          paragraph(markdown, random);
+          break;
+        case 1:
+          for (int i = 0; i < 5; i++) {
+            markdown.append("* ");
+            sentence(markdown, random);
+            markdown.append('\n');
+          }
+          markdown.append('\n');
+          break;
+        case 2:
+          markdown.append("```\n");
+          for (int i = 0; i < 4; i++) {
+            markdown.append("vertx.eventBus().send(\"address-").append(random.nextInt(100)).append("\", message);\n");
+          }
+          markdown.append("```\n\n");
+          break;
+        default:
+          paragraph(markdown, random);
+      }
+    }
+    return markdown.toString();
+  }
+
+  private static void paragraph(StringBuilder markdown, Random random) {
+    int sentences = 3 + random.nextInt(5);
+    for (int i = 0; i < sentences; i++) {
+      sentence(markdown, random);
+      markdown.append(' ');
+    }
+    markdown.append("\n\n");
+  }
+
+  private static void sentence(StringBuilder markdown, Random random) {
+    int words = 6 + random.nextInt(10);
+    for (int i = 0; i < words; i++) {
+      if (i > 0) {
+        markdown.append(' ');
+      }
+      String word = WORDS[random.nextInt(WORDS.length)];
+      int style = random.nextInt(20);
+      if (style == 0) {
+        markdown.append('*').append(word).append('*');
+      } else if (style == 1) {
+        markdown.append("**").append(word).append("**");
+      } else if (style == 2) {
+        markdown.append('[').append(word).append("](/wiki/Page_").append(random.nextInt(1000)).append(')');
+      } else {
+        markdown.append(word);
+      }
+    }
+    markdown.append('.');
+  }
+}
@@ -0,0 +1,168 @@
+package io.vertx.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.ext.jdbc.JDBCClient;
+import io.vertx.wiki.benchmarks.SampleMarkdown;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE;
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_URL;
+import static io.vertx.wiki.DatabaseConstants.DEFAULT_WIKIDB_JDBC_DRIVER_CLASS;
+
+/**
+ * {@link WikiDatabaseService} queries against an in-memory HSQLDB, called both through the event bus proxy, as the
+ * HTTP verticle does, and directly on a second service instance over the same database. The difference between the
+ * two is the cost of the proxy round trip.
+ * <p>
+ * The direct instance is called from the benchmark thread rather than from a verticle context. This is safe because
+ * the benchmark is single-threaded and no page is created once the instance is ready.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DatabaseServiceBenchmark {
+
+  @Param({"100", "10000"})
+  public int pages;
+
+  private Vertx vertx;
+  private io.vertx.wiki.database.reactivex.WikiDatabaseService proxy;
+  private WikiDatabaseService direct;
+  private String markdown;
+  private int[] ids;
+  private String[] names;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void prepare() throws Exception {
+    vertx = Vertx.vertx();
+    String jdbcUrl = "jdbc:hsqldb:mem:benchmark-" + UUID.randomUUID() + ";shutdown=true";
+    JsonObject config = new JsonObject()
+      .put(CONFIG_WIKIDB_JDBC_URL, jdbcUrl)
+      .put(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4);
+    vertx.rxDeployVerticle(WikiDatabaseVerticle.class.getName(), new DeploymentOptions().setConfig(config)).blockingGet();
+    proxy = WikiDatabaseService.createProxy(vertx.getDelegate(), WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE);
+
+    markdown = SampleMarkdown.page(4096, 42);
+    for (int i = 0; i < pages; i++) {
+      proxy.rxCreatePage("Page " + i, markdown).blockingAwait();
+    }
+    List<JsonObject> rows = proxy.rxFetchAllPagesData().blockingGet();
+    ids = new int[rows.size()];
+    names = new String[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      ids[i] = rows.get(i).getInteger("ID");
+      names[i] = rows.get(i).getString("NAME");
+    }
+
+    // Created after the seeding so that its page name filter holds every page
+    JDBCClient dbClient = JDBCClient.createShared(vertx, new JsonObject()
+      .put("url", jdbcUrl)
+      .put("driver_class", DEFAULT_WIKIDB_JDBC_DRIVER_CLASS)
+      .put("max_pool_size", 4));
+    HashMap<SqlQuery, String> sqlQueries = sqlQueries();
+    direct = this.<WikiDatabaseService>await(handler -> WikiDatabaseService.create(vertx, dbClient, sqlQueries, handler));
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    vertx.rxClose().blockingAwait();
+  }
+
+  private static HashMap<SqlQuery, String> sqlQueries() throws IOException {
+    Properties queries = new Properties();
+    try (InputStream in = WikiDatabaseVerticle.class.getResourceAsStream("/db-queries.properties")) {
+      queries.load(in);
+    }
+    HashMap<SqlQuery, String> sqlQueries = new HashMap<>();
+    for (SqlQuery query : SqlQuery.values()) {
+      sqlQueries.put(query, queries.getProperty(query.name().toLowerCase().replace('_', '-')));
+    }
+    return sqlQueries;
+  }
+
+  private <T> T await(Consumer<Handler<AsyncResult<T>>> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    call.accept(ar -> {
+      if (ar.succeeded()) {
+        future.complete(ar.result());
+      } else {
+        future.completeExceptionally(ar.cause());
+      }
+    });
+    return future.join();
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % ids.length;
+    return next;
+  }
+
+  @Benchmark
+  public JsonObject fetchPageProxy() {
+    return proxy.rxFetchPage(names[nextIndex()]).blockingGet();
+  }
+
+  @Benchmark
+  public JsonObject fetchPageDirect() {
+    String name = names[nextIndex()];
+    return await(handler -> direct.fetchPage(name, handler));
+  }
+
+  @Benchmark
+  public JsonObject fetchMissingPageDirect() {
+    String name = "Missing " + nextIndex();
+    return await(handler -> direct.fetchPage(name, handler));
+  }
+
+  @Benchmark
+  public JsonObject fetchPageByIdDirect() {
+    int id = ids[nextIndex()];
+    return await(handler -> direct.fetchPageById(id, handler));
+  }
+
+  @Benchmark
+  public JsonArray fetchAllPagesProxy() {
+    return proxy.rxFetchAllPages().blockingGet();
+  }
+
+  @Benchmark
+  public JsonArray fetchAllPagesDirect() {
+    return await(direct::fetchAllPages);
+  }
+
+  @Benchmark
+  public List<JsonObject> fetchAllPagesDataDirect() {
+    return await(direct::fetchAllPagesData);
+  }
+
+  @Benchmark
+  public Void savePageDirect() {
+    int id = ids[nextIndex()];
+    return await(handler -> direct.savePage(id, markdown, handler));
+  }
+}
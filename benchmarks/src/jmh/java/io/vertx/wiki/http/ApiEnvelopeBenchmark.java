@@ -0,0 +1,56 @@
+package io.vertx.wiki.http;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.wiki.benchmarks.SampleMarkdown;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of the {@code {"success": true, ...}} envelope of JSON API responses, for a page listing and for a single
+ * page with its markdown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApiEnvelopeBenchmark {
+
+  @Param({"10", "1000"})
+  public int pages;
+
+  private JsonArray listing;
+  private JsonObject page;
+
+  @Setup
+  public void prepare() {
+    listing = new JsonArray();
+    for (int i = 0; i < pages; i++) {
+      listing.add(new JsonObject().put("id", i).put("name", "Page " + i));
+    }
+    String markdown = SampleMarkdown.page(4096, 42);
+    page = new JsonObject()
+      .put("id", 42)
+      .put("name", "Page 42")
+      .put("markdown", markdown)
+      .put("html", Processor.process(markdown));
+  }
+
+  @Benchmark
+  public String listing() {
+    return HttpServerVerticle.apiEnvelope("pages", listing);
+  }
+
+  @Benchmark
+  public String page() {
+    return HttpServerVerticle.apiEnvelope("page", page);
+  }
+}
@@ -0,0 +1,108 @@
+package io.vertx.wiki.http;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.ext.web.templ.freemarker.FreeMarkerTemplateEngine;
+import io.vertx.wiki.benchmarks.SampleMarkdown;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FreeMarker rendering of the wiki page and home page templates, with the data the HTTP verticle passes them. The
+ * first rendering of each template, which loads and parses it, happens during the setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Engine {
+    Vertx vertx;
+    FreeMarkerTemplateEngine templateEngine;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+      vertx = Vertx.vertx();
+      templateEngine = FreeMarkerTemplateEngine.create(vertx);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+      vertx.rxClose().blockingAwait();
+    }
+
+    Buffer render(Map<String, Object> data, String template) {
+      return templateEngine.rxRender(data, template).blockingGet();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class PageData {
+    @Param({"1024", "65536"})
+    public int pageSize;
+
+    Map<String, Object> data = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void prepare(Engine engine) {
+      String markdown = SampleMarkdown.page(pageSize, 42);
+      data.put("title", "Page 42");
+      data.put("id", 42);
+      data.put("newPage", "no");
+      data.put("rawContent", markdown);
+      data.put("content", Processor.process(markdown));
+      data.put("timestamp", new Date().toString());
+      data.put("username", "foo");
+      data.put("canSavePage", true);
+      data.put("canDeletePage", true);
+      engine.render(data, "templates/page.ftl");
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class IndexData {
+    @Param({"10", "1000"})
+    public int pages;
+
+    Map<String, Object> data = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void prepare(Engine engine) {
+      List<String> names = new ArrayList<>(pages);
+      for (int i = 0; i < pages; i++) {
+        names.add("Page " + i);
+      }
+      data.put("title", "Wiki home");
+      data.put("pages", names);
+      data.put("canCreatePage", true);
+      data.put("username", "foo");
+      engine.render(data, "templates/index.ftl");
+    }
+  }
+
+  @Benchmark
+  public Buffer page(Engine engine, PageData page) {
+    return engine.render(page.data, "templates/page.ftl");
+  }
+
+  @Benchmark
+  public Buffer index(Engine engine, IndexData index) {
+    return engine.render(index.data, "templates/index.ftl");
+  }
+}
@@ -0,0 +1,30 @@
+plugins {
+  java
+  application
+}
+
+val vertxVersion = "3.6.3"
+
+dependencies {
+  implementation(project(":step10"))
+  implementation("io.vertx:vertx-core:$vertxVersion")
+  implementation("io.vertx:vertx-web-client:$vertxVersion")
+  implementation("io.vertx:vertx-rx-java2:$vertxVersion")
+  implementation("org.hdrhistogram:HdrHistogram:2.1.11")
+}
+
+java {
+  sourceCompatibility = JavaVersion.VERSION_1_8
+}
+
+// Run with: ./gradlew :loadtest:run --args="mode=open rate=2000 duration=60"
+application {
+  mainClassName = "io.vertx.wiki.loadtest.LoadTest"
+}
+
+// Run with: ./gradlew :loadtest:scaling --args="stages=1000,10000,100000 maxSize=5242880"
+tasks.register<JavaExec>("scaling") {
+  description = "Measures the wiki endpoints as a generated wiki grows"
+  classpath = sourceSets["main"].runtimeClasspath
+  main = "io.vertx.wiki.loadtest.ScalingSuite"
+}
@@ -0,0 +1,209 @@
+package io.vertx.wiki.loadtest;
+
+import io.vertx.core.Future;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.reactivex.core.AbstractVerticle;
+import io.vertx.reactivex.ext.web.client.WebClient;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends its share of the load to the wiki and records the latency of every successful request, in microseconds, in
+ * one histogram per operation.
+ * <p>
+ * In the closed loop each simulated user sends its next request when the previous one completes, so a slow server
+ * also slows the load down. In the open loop requests are due at a fixed rate, and their latency is measured from
+ * the time they were due rather than from the time they were sent: a request delayed behind slow ones counts the
+ * delay, which a closed loop would hide (coordinated omission).
+ * <p>
+ * The histograms are only touched from the verticle event loop. They are reset when the warm-up ends, and handed to
+ * {@code results} once the requests still in flight at the end of the measurement have completed, so that the wiki
+ * can be shut down. Those requests are recorded too: they were due during the measurement, and being the slowest,
+ * dropping them would hide the tail of the latencies.
+ */
+class LoadGeneratorVerticle extends AbstractVerticle {
+
+  private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  static final class Results {
+    final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+    long measuredNanos;
+
+    Results() {
+      for (Operation operation : Operation.values()) {
+        latencies.put(operation, new Histogram(HIGHEST_LATENCY_MICROS, 3));
+        errors.put(operation, 0L);
+      }
+    }
+
+    void add(Results other) {
+      for (Operation operation : Operation.values()) {
+        latencies.get(operation).add(other.latencies.get(operation));
+        errors.merge(operation, other.errors.get(operation), Long::sum);
+      }
+      measuredNanos = Math.max(measuredNanos, other.measuredNanos);
+    }
+  }
+
+  private final LoadTestOptions options;
+  private final int users;
+  private final int rate;
+  private final int[] pageIds;
+  private final String[] contents;
+  private final Future<Results> results;
+
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+  private final Random random = new Random();
+
+  private WebClient client;
+  private Results current = new Results();
+  private boolean running;
+  private int inFlight;
+  private long revision;
+
+  /**
+   * @param users    the simulated users of the closed loop
+   * @param rate     the requests per second of the open loop
+   * @param contents the markdown to send, varied by the generator so that neither the render nor the preview cache
+   *                 absorbs the load
+   */
+  LoadGeneratorVerticle(LoadTestOptions options, int users, int rate, int[] pageIds, String[] contents,
+                        Future<Results> results) {
+    this.options = options;
+    this.users = users;
+    this.rate = rate;
+    this.pageIds = pageIds;
+    this.contents = contents;
+    this.results = results;
+    operations = options.mix.keySet().toArray(new Operation[0]);
+    cumulativeWeights = new int[operations.length];
+    int total = 0;
+    for (int i = 0; i < operations.length; i++) {
+      total += options.mix.get(operations[i]);
+      cumulativeWeights[i] = total;
+    }
+  }
+
+  @Override
+  public void start() {
+    client = WebClient.create(vertx, new WebClientOptions()
+      .setDefaultHost("localhost")
+      .setDefaultPort(options.port)
+      .setKeepAlive(true)
+      .setMaxPoolSize(options.openLoop ? Math.max(64, rate / 10) : Math.max(1, users)));
+    running = true;
+
+    vertx.setTimer(TimeUnit.SECONDS.toMillis(options.warmup), warmedUp -> {
+      current = new Results();
+      long measurementStart = System.nanoTime();
+      vertx.setTimer(TimeUnit.SECONDS.toMillis(options.duration), done -> {
+        running = false;
+        current.measuredNanos = System.nanoTime() - measurementStart;
+        completeWhenDrained();
+      });
+    });
+
+    if (options.openLoop) {
+      if (rate > 0) {
+        openLoop();
+      }
+    } else {
+      for (int i = 0; i < users; i++) {
+        closedLoop();
+      }
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    client.close();
+  }
+
+  private void closedLoop() {
+    if (!running) {
+      return;
+    }
+    send(System.nanoTime(), this::closedLoop);
+  }
+
+  private void openLoop() {
+    long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+    long[] nextDue = {System.nanoTime()};
+    vertx.setPeriodic(1, timer -> {
+      if (!running) {
+        vertx.cancelTimer(timer);
+        return;
+      }
+      long now = System.nanoTime();
+      while (nextDue[0] <= now) {
+        send(nextDue[0], null);
+        nextDue[0] += interval;
+      }
+    });
+  }
+
+  private void send(long intendedStart, Runnable next) {
+    Operation operation = nextOperation();
+    int pageId = pageIds[random.nextInt(pageIds.length)];
+    String markdown = contents[random.nextInt(contents.length)] + "\n\nRevision " + (++revision);
+    Results recording = current;
+    inFlight++;
+    operation.send(client, pageId, markdown).doFinally(() -> {
+      inFlight--;
+      if (next != null) {
+        next.run();
+      }
+      completeWhenDrained();
+    }).subscribe(response -> {
+      if (response.statusCode() / 100 == 2) {
+        record(recording, operation, intendedStart);
+      } else {
+        recordError(recording, operation);
+      }
+    }, t -> recordError(recording, operation));
+  }
+
+  private void completeWhenDrained() {
+    if (!running && inFlight == 0 && current.measuredNanos > 0) {
+      results.tryComplete(current);
+    }
+  }
+
+  private void record(Results recording, Operation operation, long intendedStart) {
+    if (measuring(recording)) {
+      long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+      recording.latencies.get(operation).recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+    }
+  }
+
+  private void recordError(Results recording, Operation operation) {
+    if (measuring(recording)) {
+      recording.errors.merge(operation, 1L, Long::sum);
+    }
+  }
+
+  /*
+   * Requests sent during the warm-up are not measured. No request is sent after the end, so the others were all due
+   * during the measurement, whenever they complete.
+   */
+  private boolean measuring(Results recording) {
+    return recording == current;
+  }
+
+  private Operation nextOperation() {
+    int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (draw < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    return operations[operations.length - 1];
+  }
+}
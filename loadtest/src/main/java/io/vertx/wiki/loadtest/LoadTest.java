@@ -0,0 +1,166 @@
+package io.vertx.wiki.loadtest;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.SingleHelper;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.wiki.MainVerticle;
+import io.vertx.wiki.database.WikiDatabaseService;
+import io.vertx.wiki.database.WikiDatabaseVerticle;
+import io.vertx.wiki.http.HttpServerVerticle;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_URL;
+
+/**
+ * Starts the wiki on an in-memory database, seeds it with pages, then drives a mix of API requests against it and
+ * prints the throughput and latency percentiles of each operation.
+ */
+public class LoadTest {
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+  private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+  private static final int SEEDING_CONCURRENCY = 16;
+  private static final int CONTENT_VARIANTS = 16;
+
+  public static void main(String[] args) {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    System.out.println("Load test: " + options.describe());
+
+    Vertx vertx = Vertx.vertx();
+    JsonObject config = new JsonObject()
+      .put(CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:mem:loadtest;shutdown=true")
+      .put(HttpServerVerticle.CONFIG_HTTP_SERVER_PORT, options.port)
+      .put(MainVerticle.CONFIG_HTTP_SERVER_INSTANCES, options.serverInstances);
+    String[] contents = new String[CONTENT_VARIANTS];
+    for (int i = 0; i < contents.length; i++) {
+      contents[i] = markdown(options.pageSize, i);
+    }
+    io.vertx.wiki.database.reactivex.WikiDatabaseService dbService =
+      WikiDatabaseService.createProxy(vertx.getDelegate(), WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE);
+
+    vertx.rxDeployVerticle(MainVerticle.class.getName(), new DeploymentOptions().setConfig(config))
+      .flatMapCompletable(id -> Flowable.range(0, options.pages)
+        .flatMapCompletable(i -> dbService.rxCreatePage("Page " + i, contents[i % contents.length]),
+          false, SEEDING_CONCURRENCY))
+      .andThen(dbService.rxFetchAllPagesData())
+      .map(rows -> rows.stream().mapToInt(row -> row.getInteger("ID")).toArray())
+      .flatMap(pageIds -> run(vertx, options, pageIds, contents))
+      .flatMap(results -> {
+        JsonObject report = report(options, results);
+        if (options.report == null) {
+          return Single.just(report);
+        }
+        return vertx.fileSystem().rxWriteFile(options.report, Buffer.buffer(report.encodePrettily()))
+          .andThen(Single.just(report));
+      })
+      .doFinally(() -> vertx.rxClose().subscribe(() -> {}, Throwable::printStackTrace))
+      .subscribe(report -> {}, Throwable::printStackTrace);
+  }
+
+  private static Single<LoadGeneratorVerticle.Results> run(Vertx vertx, LoadTestOptions options, int[] pageIds,
+                                                          String[] contents) {
+    List<Single<LoadGeneratorVerticle.Results>> generators = new ArrayList<>();
+    for (int i = 0; i < options.generators; i++) {
+      // The load is split as evenly as possible, the first generators taking the remainder
+      int users = share(options.concurrency, options.generators, i);
+      int rate = share(options.rate, options.generators, i);
+      Future<LoadGeneratorVerticle.Results> results = Future.future();
+      generators.add(vertx.rxDeployVerticle(new LoadGeneratorVerticle(options, users, rate, pageIds, contents, results))
+        .flatMap(id -> SingleHelper.toSingle(results::setHandler)));
+    }
+    return Single.merge(generators).reduce(new LoadGeneratorVerticle.Results(), (total, results) -> {
+      total.add(results);
+      return total;
+    });
+  }
+
+  private static int share(int total, int parts, int part) {
+    return total / parts + (part < total % parts ? 1 : 0);
+  }
+
+  private static JsonObject report(LoadTestOptions options, LoadGeneratorVerticle.Results results) {
+    double seconds = results.measuredNanos / (double) TimeUnit.SECONDS.toNanos(1);
+    Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+    long allErrors = 0;
+    JsonObject operations = new JsonObject();
+
+    System.out.println();
+    System.out.println(String.format("%-10s %10s %8s %10s %9s %9s %9s %9s %9s",
+      "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+    for (Operation operation : options.mix.keySet()) {
+      Histogram latencies = results.latencies.get(operation);
+      long errors = results.errors.get(operation);
+      all.add(latencies);
+      allErrors += errors;
+      operations.put(operation.name().toLowerCase(), printRow(operation.name().toLowerCase(), latencies, errors, seconds));
+    }
+    JsonObject total = printRow("total", all, allErrors, seconds);
+
+    return new JsonObject()
+      .put("mode", options.openLoop ? "open" : "closed")
+      .put("concurrency", options.concurrency)
+      .put("rate", options.rate)
+      .put("duration", seconds)
+      .put("pages", options.pages)
+      .put("pageSize", options.pageSize)
+      .put("serverInstances", options.serverInstances)
+      .put("operations", operations)
+      .put("total", total);
+  }
+
+  private static JsonObject printRow(String name, Histogram latencies, long errors, double seconds) {
+    long count = latencies.getTotalCount();
+    double throughput = count / seconds;
+    StringBuilder row = new StringBuilder(String.format("%-10s %10d %8d %10.1f", name, count, errors, throughput));
+    JsonObject percentiles = new JsonObject();
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      double millis = latencies.getValueAtPercentile(PERCENTILES[i]) / 1000.0;
+      row.append(String.format(" %9.2f", millis));
+      percentiles.put(PERCENTILE_NAMES[i], millis);
+    }
+    double max = latencies.getMaxValue() / 1000.0;
+    row.append(String.format(" %9.2f", max));
+    System.out.println(row);
+    return new JsonObject()
+      .put("requests", count)
+      .put("errors", errors)
+      .put("throughput", throughput)
+      .put("latencyMillis", percentiles.put("max", max));
+  }
+
+  /**
+   * Markdown of about {@code size} characters, with the headings, emphasis, links and lists of a wiki page.
+   */
+  static String markdown(int size, long seed) {
+    Random random = new Random(seed);
+    StringBuilder markdown = new StringBuilder(size + 64);
+    int section = 0;
+    while (markdown.length() < size) {
+      markdown.append("## Section ").append(++section).append("\n\n");
+      for (int sentence = 0; sentence < 6; sentence++) {
+        switch (random.nextInt(4)) {
+          case 0:
+            markdown.append("See [Page ").append(random.nextInt(1000)).append("](/wiki/Page) for *details*. ");
+            break;
+          case 1:
+            markdown.append("This is **important** and should be read twice. ");
+            break;
+          default:
+            markdown.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ");
+        }
+      }
+      markdown.append("\n\n- first item\n- second item\n- third item\n\n");
+    }
+    return markdown.toString();
+  }
+}
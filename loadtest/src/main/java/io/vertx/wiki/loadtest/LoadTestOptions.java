@@ -0,0 +1,111 @@
+package io.vertx.wiki.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, given on the command line as {@code key=value} arguments:
+ * <ul>
+ * <li>{@code mode}: {@code closed} (default), where each of {@code concurrency} users sends its next request when
+ * the previous one completes, or {@code open}, where requests are sent at a fixed {@code rate} per second whatever
+ * the response times</li>
+ * <li>{@code concurrency} (64), {@code rate} (1000), {@code duration} (30) and {@code warmup} (10) seconds</li>
+ * <li>{@code mix}: operation weights, as {@code list=10,get=70,update=10,preview=10}</li>
+ * <li>{@code pages} (1000) and {@code pageSize} (4096): the pages seeded before the test</li>
+ * <li>{@code generators} (2): verticle instances generating the load, each on its own event loop</li>
+ * <li>{@code serverInstances} (2) and {@code port} (8080): the wiki HTTP server</li>
+ * <li>{@code report}: a file to write the results to as JSON</li>
+ * </ul>
+ */
+final class LoadTestOptions {
+
+  boolean openLoop;
+  int concurrency = 64;
+  int rate = 1000;
+  int duration = 30;
+  int warmup = 10;
+  Map<Operation, Integer> mix = parseMix("list=10,get=70,update=10,preview=10");
+  int pages = 1000;
+  int pageSize = 4096;
+  int generators = 2;
+  int serverInstances = 2;
+  int port = 8080;
+  String report;
+
+  static LoadTestOptions parse(String[] args) {
+    LoadTestOptions options = new LoadTestOptions();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected key=value, got " + arg);
+      }
+      String key = arg.substring(0, separator);
+      String value = arg.substring(separator + 1);
+      switch (key) {
+        case "mode":
+          if (!value.equals("open") && !value.equals("closed")) {
+            throw new IllegalArgumentException("The mode is either open or closed");
+          }
+          options.openLoop = value.equals("open");
+          break;
+        case "concurrency":
+          options.concurrency = Integer.parseInt(value);
+          break;
+        case "rate":
+          options.rate = Integer.parseInt(value);
+          break;
+        case "duration":
+          options.duration = Integer.parseInt(value);
+          break;
+        case "warmup":
+          options.warmup = Integer.parseInt(value);
+          break;
+        case "mix":
+          options.mix = parseMix(value);
+          break;
+        case "pages":
+          options.pages = Integer.parseInt(value);
+          break;
+        case "pageSize":
+          options.pageSize = Integer.parseInt(value);
+          break;
+        case "generators":
+          options.generators = Integer.parseInt(value);
+          break;
+        case "serverInstances":
+          options.serverInstances = Integer.parseInt(value);
+          break;
+        case "port":
+          options.port = Integer.parseInt(value);
+          break;
+        case "report":
+          options.report = value;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + key);
+      }
+    }
+    if (options.pages < 1) {
+      throw new IllegalArgumentException("At least one page must be seeded");
+    }
+    return options;
+  }
+
+  private static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.split("=");
+      weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+    }
+    if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+      throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+    }
+    return weights;
+  }
+
+  String describe() {
+    String load = openLoop ? "open loop at " + rate + " req/s" : "closed loop with " + concurrency + " users";
+    return load + ", " + duration + " s measured after " + warmup + " s of warm-up, " + pages + " pages of "
+      + pageSize + " characters, mix " + mix;
+  }
+}
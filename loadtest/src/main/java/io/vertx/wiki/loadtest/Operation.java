@@ -0,0 +1,43 @@
+package io.vertx.wiki.loadtest;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.ext.web.client.HttpResponse;
+import io.vertx.reactivex.ext.web.client.WebClient;
+import io.reactivex.Single;
+
+/**
+ * The requests of the load mix, each on a page drawn by the generator.
+ */
+enum Operation {
+
+  LIST {
+    @Override
+    Single<HttpResponse<Buffer>> send(WebClient client, int pageId, String markdown) {
+      return client.get("/api/pages").rxSend();
+    }
+  },
+
+  GET {
+    @Override
+    Single<HttpResponse<Buffer>> send(WebClient client, int pageId, String markdown) {
+      return client.get("/api/pages/" + pageId).rxSend();
+    }
+  },
+
+  UPDATE {
+    @Override
+    Single<HttpResponse<Buffer>> send(WebClient client, int pageId, String markdown) {
+      return client.put("/api/pages/" + pageId).rxSendJsonObject(new JsonObject().put("markdown", markdown));
+    }
+  },
+
+  PREVIEW {
+    @Override
+    Single<HttpResponse<Buffer>> send(WebClient client, int pageId, String markdown) {
+      return client.post("/app/markdown").rxSendBuffer(Buffer.buffer(markdown));
+    }
+  };
+
+  abstract Single<HttpResponse<Buffer>> send(WebClient client, int pageId, String markdown);
+}
@@ -0,0 +1,119 @@
+package io.vertx.wiki.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scaling suite settings, given on the command line as {@code key=value} arguments:
+ * <ul>
+ * <li>{@code stages}: the wiki sizes to measure at, in pages, as {@code 1000,10000,100000}</li>
+ * <li>{@code minSize} (512), {@code maxSize} (1048576) and {@code sizeExponent} (1.2): the Zipfian page sizes, in
+ * characters</li>
+ * <li>{@code links} (2): links to other pages per kilobyte of markdown</li>
+ * <li>{@code titleWords} (4): the maximum words in a page title</li>
+ * <li>{@code seed} (42): the wiki generated, the same seed generating the same pages</li>
+ * <li>{@code samples} (200): requests measured per endpoint and stage</li>
+ * <li>{@code degradation} (2): the slowdown over the first stage from which an endpoint is reported as degraded</li>
+ * <li>{@code jdbcUrl}: the database, in memory by default, which must outlive the restarts between stages</li>
+ * <li>{@code port} (8080), {@code serverInstances} (2) and {@code report}, as for the load test</li>
+ * </ul>
+ */
+final class ScalingOptions {
+
+  List<Integer> stages = parseStages("1000,10000,100000");
+  int minSize = 512;
+  int maxSize = 1024 * 1024;
+  double sizeExponent = 1.2;
+  double links = 2;
+  int titleWords = 4;
+  long seed = 42;
+  int samples = 200;
+  double degradation = 2;
+  String jdbcUrl = "jdbc:hsqldb:mem:scaling";
+  int port = 8080;
+  int serverInstances = 2;
+  String report;
+
+  static ScalingOptions parse(String[] args) {
+    ScalingOptions options = new ScalingOptions();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected key=value, got " + arg);
+      }
+      String key = arg.substring(0, separator);
+      String value = arg.substring(separator + 1);
+      switch (key) {
+        case "stages":
+          options.stages = parseStages(value);
+          break;
+        case "minSize":
+          options.minSize = Integer.parseInt(value);
+          break;
+        case "maxSize":
+          options.maxSize = Integer.parseInt(value);
+          break;
+        case "sizeExponent":
+          options.sizeExponent = Double.parseDouble(value);
+          break;
+        case "links":
+          options.links = Double.parseDouble(value);
+          break;
+        case "titleWords":
+          options.titleWords = Integer.parseInt(value);
+          break;
+        case "seed":
+          options.seed = Long.parseLong(value);
+          break;
+        case "samples":
+          options.samples = Integer.parseInt(value);
+          break;
+        case "degradation":
+          options.degradation = Double.parseDouble(value);
+          break;
+        case "jdbcUrl":
+          options.jdbcUrl = value;
+          break;
+        case "port":
+          options.port = Integer.parseInt(value);
+          break;
+        case "serverInstances":
+          options.serverInstances = Integer.parseInt(value);
+          break;
+        case "report":
+          options.report = value;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + key);
+      }
+    }
+    if (options.minSize < 1 || options.maxSize < options.minSize) {
+      throw new IllegalArgumentException("Page sizes must satisfy 0 < minSize <= maxSize");
+    }
+    if (options.samples < 1) {
+      throw new IllegalArgumentException("At least one sample per endpoint is needed");
+    }
+    return options;
+  }
+
+  private static List<Integer> parseStages(String stages) {
+    List<Integer> sizes = new ArrayList<>();
+    for (String stage : stages.split(",")) {
+      int size = Integer.parseInt(stage.trim());
+      if (size < 1 || (!sizes.isEmpty() && size <= sizes.get(sizes.size() - 1))) {
+        throw new IllegalArgumentException("Stages must be increasing page counts");
+      }
+      sizes.add(size);
+    }
+    return sizes;
+  }
+
+  int largestStage() {
+    return stages.get(stages.size() - 1);
+  }
+
+  String describe() {
+    return "stages " + stages + ", page sizes " + minSize + " to " + maxSize + " characters (Zipf exponent "
+      + sizeExponent + "), " + links + " links per kilobyte, " + samples + " samples per endpoint";
+  }
+}
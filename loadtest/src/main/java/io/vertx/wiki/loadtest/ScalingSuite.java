@@ -0,0 +1,248 @@
+package io.vertx.wiki.loadtest;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.ext.web.client.HttpResponse;
+import io.vertx.reactivex.ext.web.client.WebClient;
+import io.vertx.wiki.MainVerticle;
+import io.vertx.wiki.database.WikiDatabaseService;
+import io.vertx.wiki.database.WikiDatabaseVerticle;
+import io.vertx.wiki.http.HttpServerVerticle;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_URL;
+
+/**
+ * Grows a generated wiki through increasing sizes and measures, at each size, how long the wiki takes to start and
+ * to list all its pages, and the latency of listing, fetching and saving pages. Requests are sent one at a time, so
+ * that the latencies are the cost of each request rather than of queueing.
+ * <p>
+ * The wiki restarts on a new Vert.x instance between the loading of a stage and its measurement, so that the startup
+ * time covers the work done over the existing pages and no cache is warmed by the loading.
+ * <p>
+ * The report compares every stage with the first one. Requests on a single page are expected to take the same time
+ * whatever the size of the wiki, and whole-wiki operations (startup, listing all pages) to grow linearly with it; a
+ * measurement is reported as degraded when it is more than {@code degradation} times its expected value.
+ */
+public class ScalingSuite {
+
+  private static final int LOAD_CONCURRENCY = 16;
+  private static final int LISTING_LIMIT = 1000;
+
+  private static final String[] METRICS = {"startup", "listAll", "list", "fetch", "save"};
+
+  private final ScalingOptions options;
+  private final WikiGenerator generator;
+  private final JsonObject config;
+  private final Random random;
+
+  private volatile Vertx vertx;
+  private volatile int loaded;
+
+  private ScalingSuite(ScalingOptions options) {
+    this.options = options;
+    generator = new WikiGenerator(options.largestStage(), options.minSize, options.maxSize, options.sizeExponent,
+      options.links, options.titleWords, options.seed);
+    config = new JsonObject()
+      .put(CONFIG_WIKIDB_JDBC_URL, options.jdbcUrl)
+      .put(HttpServerVerticle.CONFIG_HTTP_SERVER_PORT, options.port)
+      .put(MainVerticle.CONFIG_HTTP_SERVER_INSTANCES, options.serverInstances);
+    random = new Random(options.seed);
+  }
+
+  public static void main(String[] args) {
+    ScalingOptions options = ScalingOptions.parse(args);
+    System.out.println("Scaling suite: " + options.describe());
+    ScalingSuite suite = new ScalingSuite(options);
+    suite.run()
+      .map(suite::report)
+      .flatMap(report -> {
+        if (options.report == null) {
+          return Single.just(report);
+        }
+        return suite.vertx.fileSystem().rxWriteFile(options.report, Buffer.buffer(report.encodePrettily()))
+          .andThen(Single.just(report));
+      })
+      .doFinally(() -> suite.vertx.rxClose().subscribe(() -> {}, Throwable::printStackTrace))
+      .subscribe(report -> {}, Throwable::printStackTrace);
+  }
+
+  private Single<JsonArray> run() {
+    return start()
+      .flatMap(startup -> Flowable.fromIterable(options.stages)
+        .concatMapSingle(this::stage)
+        .collect(JsonArray::new, JsonArray::add));
+  }
+
+  private Single<Long> start() {
+    return Single.defer(() -> {
+      long start = System.nanoTime();
+      vertx = Vertx.vertx();
+      return vertx.rxDeployVerticle(MainVerticle.class.getName(), new DeploymentOptions().setConfig(config))
+        .map(id -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    });
+  }
+
+  private Single<JsonObject> stage(int pages) {
+    JsonObject stage = new JsonObject().put("pages", pages);
+    return Completable.defer(() -> {
+      long start = System.nanoTime();
+      io.vertx.wiki.database.reactivex.WikiDatabaseService dbService =
+        WikiDatabaseService.createProxy(vertx.getDelegate(), WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE);
+      return generator.load(dbService, loaded, pages, LOAD_CONCURRENCY)
+        .doOnComplete(() -> {
+          double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+          stage.put("loadRate", (pages - loaded) / seconds);
+          loaded = pages;
+        });
+    })
+      .andThen(Completable.defer(() -> vertx.rxClose()))
+      .andThen(start())
+      .flatMap(startup -> {
+        stage.put("startup", startup);
+        return measure(stage, pages);
+      })
+      .doOnSuccess(this::print);
+  }
+
+  private Single<JsonObject> measure(JsonObject stage, int pages) {
+    WebClient client = WebClient.create(vertx, new WebClientOptions()
+      .setDefaultHost("localhost")
+      .setDefaultPort(options.port)
+      .setKeepAlive(true));
+    long[] start = {0};
+    // The first walk through the listing warms the code up, the second one is measured
+    return listAll(client, -1, new ArrayList<>())
+      .doOnSuccess(ids -> start[0] = System.nanoTime())
+      .flatMap(ids -> listAll(client, -1, new ArrayList<>()))
+      .flatMap(ids -> {
+        stage.put("listAll", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start[0]));
+        return sample(i -> client.get("/api/pages").rxSend())
+          .doOnSuccess(latencies -> stage.put("list", latencies))
+          .flatMap(latencies -> sample(i -> client.get("/api/pages/" + randomId(ids)).rxSend()))
+          .doOnSuccess(latencies -> stage.put("fetch", latencies))
+          .flatMap(latencies -> sample(i -> client.put("/api/pages/" + randomId(ids))
+            .rxSendJsonObject(new JsonObject().put("markdown", generator.markdown(random.nextInt(pages))))))
+          .doOnSuccess(latencies -> stage.put("save", latencies));
+      })
+      .map(latencies -> stage)
+      .doFinally(client::close);
+  }
+
+  private int randomId(List<Integer> ids) {
+    return ids.get(random.nextInt(ids.size()));
+  }
+
+  private Single<List<Integer>> listAll(WebClient client, int after, List<Integer> ids) {
+    return client.get("/api/pages")
+      .addQueryParam("limit", String.valueOf(LISTING_LIMIT))
+      .addQueryParam("after", String.valueOf(after))
+      .rxSend()
+      .flatMap(response -> {
+        JsonObject body = response.bodyAsJsonObject();
+        body.getJsonArray("pages").forEach(page -> ids.add(((JsonObject) page).getInteger("id")));
+        Integer next = body.getInteger("next");
+        return next != null ? listAll(client, next, ids) : Single.just(ids);
+      });
+  }
+
+  /**
+   * Sends {@code options.samples} requests one after another, after a tenth as many unmeasured ones, and returns
+   * their latency percentiles in milliseconds.
+   */
+  private Single<JsonObject> sample(IntFunction<Single<HttpResponse<Buffer>>> request) {
+    int warmup = Math.max(1, options.samples / 10);
+    Histogram latencies = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+    long[] errors = {0};
+    return Flowable.range(0, warmup + options.samples)
+      .concatMapCompletable(i -> Completable.defer(() -> {
+        long start = System.nanoTime();
+        return request.apply(i)
+          .doOnSuccess(response -> {
+            if (i < warmup) {
+              return;
+            }
+            if (response.statusCode() / 100 == 2) {
+              long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+              latencies.recordValue(Math.min(micros, latencies.getHighestTrackableValue()));
+            } else {
+              errors[0]++;
+            }
+          })
+          .ignoreElement();
+      }))
+      .toSingle(() -> new JsonObject()
+        .put("p50", latencies.getValueAtPercentile(50) / 1000.0)
+        .put("p99", latencies.getValueAtPercentile(99) / 1000.0)
+        .put("max", latencies.getMaxValue() / 1000.0)
+        .put("errors", errors[0]));
+  }
+
+  private void print(JsonObject stage) {
+    if (stage.getInteger("pages").equals(options.stages.get(0))) {
+      System.out.println();
+      System.out.println(String.format("%9s %10s %10s %10s %9s %9s %9s %9s %9s %9s",
+        "pages", "load p/s", "startup ms", "listAll ms", "list p50", "list p99", "fetch p50", "fetch p99",
+        "save p50", "save p99"));
+    }
+    System.out.println(String.format("%9d %10.0f %10d %10d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f",
+      stage.getInteger("pages"), stage.getDouble("loadRate"), stage.getLong("startup"), stage.getLong("listAll"),
+      stage.getJsonObject("list").getDouble("p50"), stage.getJsonObject("list").getDouble("p99"),
+      stage.getJsonObject("fetch").getDouble("p50"), stage.getJsonObject("fetch").getDouble("p99"),
+      stage.getJsonObject("save").getDouble("p50"), stage.getJsonObject("save").getDouble("p99")));
+  }
+
+  private JsonObject report(JsonArray stages) {
+    JsonObject first = stages.getJsonObject(0);
+    JsonObject degradation = new JsonObject();
+    System.out.println();
+    System.out.println("Degradation, over " + options.degradation + " times the expected value from "
+      + first.getInteger("pages") + " pages:");
+    for (String metric : METRICS) {
+      boolean wholeWiki = metric.equals("startup") || metric.equals("listAll");
+      JsonArray ratios = new JsonArray();
+      Integer degradesAt = null;
+      for (int i = 0; i < stages.size(); i++) {
+        JsonObject stage = stages.getJsonObject(i);
+        double scale = wholeWiki ? stage.getInteger("pages") / (double) first.getInteger("pages") : 1;
+        // Sub-millisecond baselines are rounded up so that timer noise is not reported as degradation
+        double ratio = value(stage, metric) / (Math.max(1, value(first, metric)) * scale);
+        ratios.add(Math.round(ratio * 100) / 100.0);
+        if (degradesAt == null && ratio > options.degradation) {
+          degradesAt = stage.getInteger("pages");
+        }
+      }
+      degradation.put(metric, new JsonObject().put("ratios", ratios).put("degradesAt", degradesAt));
+      System.out.println(String.format("  %-8s %-6s ratios %s: %s", metric, wholeWiki ? "linear" : "flat", ratios,
+        degradesAt != null ? "degrades at " + degradesAt + " pages" : "no degradation up to " + options.largestStage()
+          + " pages"));
+    }
+    return new JsonObject()
+      .put("minSize", options.minSize)
+      .put("maxSize", options.maxSize)
+      .put("sizeExponent", options.sizeExponent)
+      .put("links", options.links)
+      .put("seed", options.seed)
+      .put("samples", options.samples)
+      .put("stages", stages)
+      .put("degradation", degradation);
+  }
+
+  private static double value(JsonObject stage, String metric) {
+    Object value = stage.getValue(metric);
+    return value instanceof JsonObject ? ((JsonObject) value).getDouble("p50") : ((Number) value).doubleValue();
+  }
+}
@@ -0,0 +1,155 @@
+package io.vertx.wiki.loadtest;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.vertx.wiki.database.reactivex.WikiDatabaseService;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic wikis whose shape follows the usual skew of real ones:
+ * <ul>
+ * <li>page sizes are Zipfian: most pages are a few multiples of {@code minSize}, a few reach {@code maxSize}</li>
+ * <li>titles are one to {@code maxTitleWords} words, drawn from a vocabulary where a few words are very common, so
+ * that many titles share prefixes</li>
+ * <li>pages link to other pages, {@code linksPerKilobyte} times per kilobyte of markdown, popular pages receiving
+ * most of the links</li>
+ * </ul>
+ * The same parameters and seed always generate the same wiki, so that runs can be compared.
+ */
+final class WikiGenerator {
+
+  private static final String[] VOCABULARY = {
+    "Home", "Guide", "Release", "Notes", "Setup", "Install", "Server", "Client", "Event", "Bus", "Verticle", "Router",
+    "Database", "Query", "Cache", "Page", "Template", "Security", "Auth", "Token", "Cluster", "Deploy", "Metrics",
+    "Logging", "Config", "Test", "Build", "Gradle", "Docker", "Kubernetes", "Proxy", "Service", "Stream", "Buffer",
+    "Codec", "Timer", "Worker", "Pool", "Context", "Future", "Promise", "Handler", "Shared", "Data", "Map", "Lock",
+    "Counter", "File", "System", "Network", "Socket", "Http", "Web", "Session", "Cookie", "Static", "Upload",
+    "Markdown", "Preview", "Search", "Index", "History", "Backup", "Restore", "Migration", "Schema", "Roles", "Users",
+    "Admin", "Dashboard", "Report", "Benchmark", "Profile", "Tuning", "Scaling", "Latency", "Throughput", "Memory"
+  };
+
+  private static final String[] SENTENCES = {
+    "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ",
+    "Sed do eiusmod tempor incididunt ut labore et dolore magna aliqua. ",
+    "This is **important** and should be read twice. ",
+    "The *details* are explained below. ",
+    "Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris. "
+  };
+
+  private final int pages;
+  private final int minSize;
+  private final int maxSize;
+  private final double linksPerKilobyte;
+  private final long seed;
+
+  private final Zipf sizes;
+  private final Zipf words;
+  private final Zipf linkTargets;
+  private final String[] titles;
+
+  /**
+   * @param sizeExponent the Zipf exponent of page sizes: the higher, the rarer the large pages
+   */
+  WikiGenerator(int pages, int minSize, int maxSize, double sizeExponent, double linksPerKilobyte, int maxTitleWords,
+                long seed) {
+    this.pages = pages;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+    this.linksPerKilobyte = linksPerKilobyte;
+    this.seed = seed;
+    sizes = new Zipf(Math.max(1, maxSize / minSize), sizeExponent);
+    words = new Zipf(VOCABULARY.length, 1.0);
+    linkTargets = new Zipf(pages, 1.0);
+    titles = titles(maxTitleWords);
+  }
+
+  private String[] titles(int maxTitleWords) {
+    Random random = new Random(seed);
+    Set<String> taken = new HashSet<>();
+    String[] titles = new String[pages];
+    for (int i = 0; i < pages; i++) {
+      StringBuilder title = new StringBuilder();
+      int count = 1 + random.nextInt(maxTitleWords);
+      for (int word = 0; word < count; word++) {
+        if (word > 0) {
+          title.append(' ');
+        }
+        title.append(VOCABULARY[words.sample(random)]);
+      }
+      // Page names are unique, common combinations get numbered like people do
+      String candidate = title.toString();
+      for (int n = 2; !taken.add(candidate); n++) {
+        candidate = title + " " + n;
+      }
+      titles[i] = candidate;
+    }
+    return titles;
+  }
+
+  String markdown(int page) {
+    Random random = new Random(seed * 31 + page);
+    int size = Math.min(maxSize, minSize * (sizes.sample(random) + 1));
+    double linkProbability = Math.min(1.0, linksPerKilobyte * 64 / 1024);
+    StringBuilder markdown = new StringBuilder(size + 256);
+    markdown.append("# ").append(titles[page]).append("\n\n");
+    for (int sentence = 0; markdown.length() < size; sentence++) {
+      if (sentence % 8 == 0) {
+        markdown.append("\n\n## Section ").append(sentence / 8 + 1).append("\n\n");
+      }
+      // Sentences and links average about 64 characters each
+      if (random.nextDouble() < linkProbability) {
+        String target = titles[linkTargets.sample(random)];
+        markdown.append("See [").append(target).append("](/wiki/").append(target.replace(' ', '_')).append("). ");
+      } else {
+        markdown.append(SENTENCES[random.nextInt(SENTENCES.length)]);
+      }
+    }
+    return markdown.toString();
+  }
+
+  /**
+   * Creates the pages from {@code from} inclusive to {@code to} exclusive, {@code concurrency} at a time.
+   */
+  Completable load(WikiDatabaseService dbService, int from, int to, int concurrency) {
+    return Flowable.range(from, to - from)
+      .flatMapCompletable(page -> dbService.rxCreatePage(titles[page], markdown(page)), false, concurrency);
+  }
+
+  /**
+   * Samples ranks from 0 to {@code n - 1}, rank {@code k} with a probability proportional to
+   * {@code 1 / (k + 1)^exponent}, by a binary search of the cumulative distribution.
+   */
+  private static final class Zipf {
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+      cumulative = new double[n];
+      double total = 0;
+      for (int k = 0; k < n; k++) {
+        total += 1 / Math.pow(k + 1, exponent);
+        cumulative[k] = total;
+      }
+      for (int k = 0; k < n; k++) {
+        cumulative[k] /= total;
+      }
+    }
+
+    int sample(Random random) {
+      double draw = random.nextDouble();
+      int low = 0;
+      int high = cumulative.length - 1;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (cumulative[middle] < draw) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+}
@@ -11,3 +11,5 @@ include("step7")
 include("step8")
 include("step9")
 include("step10")
+include("benchmarks")
+include("loadtest")
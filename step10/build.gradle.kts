@@ -33,6 +33,9 @@ dependencies {
 
   implementation("io.vertx:vertx-rx-java2:$vertxVersion")
 
+  implementation("io.vertx:vertx-micrometer-metrics:$vertxVersion")
+  implementation("io.micrometer:micrometer-registry-prometheus:1.1.0")
+
   testImplementation("io.vertx:vertx-junit5:$vertxVersion")
   testImplementation("io.vertx:vertx-web-client:$vertxVersion")
   testImplementation("org.junit.jupiter:junit-jupiter-api:$junitVersion")
@@ -44,7 +47,7 @@ java {
 }
 
 application {
-  mainClassName = "io.vertx.core.Launcher"
+  mainClassName = "io.vertx.wiki.WikiLauncher"
 }
 
 val mainVerticleName = "io.vertx.wiki.MainVerticle"
@@ -61,9 +64,23 @@ tasks {
     dependsOn("codeGen")
   }
   
+  register("checkJdk") {
+    group = "build"
+    description = "check that the JDK provides the flight recorder API"
+    doLast {
+      try {
+        Class.forName("jdk.jfr.FlightRecorder", false, ClassLoader.getSystemClassLoader())
+      } catch (e: ClassNotFoundException) {
+        throw GradleException("The wiki events need the jdk.jfr API, which comes with JDK 8u262 and 11: " +
+          "${System.getProperty("java.home")} (${System.getProperty("java.version")}) does not provide it")
+      }
+    }
+  }
+
   register("codeGen", JavaCompile::class) {
     group = "build"
     description = "generate vertx service code"
+    dependsOn("checkJdk")
     source = sourceSets.getByName("main").java
     classpath = configurations.getByName("compileClasspath")
     destinationDir = project.file("src/main/generated")
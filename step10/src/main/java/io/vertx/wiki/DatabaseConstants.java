@@ -4,9 +4,16 @@ public interface DatabaseConstants {
   String CONFIG_WIKIDB_JDBC_URL = "wikidb.jdbc.url";
   String CONFIG_WIKIDB_JDBC_DRIVER_CLASS = "wikidb.jdbc.driver_class";
   String CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE = "wikidb.jdbc.max_pool_size";
+  String CONFIG_WIKIDB_WRITE_BEHIND_WINDOW = "wikidb.write_behind.window";
+
+  /**
+   * Address on which the database service publishes an empty message after page changes have been recorded.
+   */
+  String WIKIDB_CHANGES_ADDRESS = "wikidb.changes";
 
   String DEFAULT_WIKIDB_JDBC_URL = "jdbc:hsqldb:file:db/wiki";
   String DEFAULT_WIKIDB_JDBC_DRIVER_CLASS = "org.hsqldb.jdbcDriver";
   int DEFAULT_JDBC_MAX_POOL_SIZE = 30;
+  long DEFAULT_WIKIDB_WRITE_BEHIND_WINDOW = 0;
 
 }
@@ -6,12 +6,16 @@ import io.vertx.reactivex.core.AbstractVerticle;
 
 @SuppressWarnings("Duplicates")
 public class MainVerticle extends AbstractVerticle {
+  public static final String CONFIG_HTTP_SERVER_INSTANCES = "http.server.instances";
+
+  private static final int DEFAULT_HTTP_SERVER_INSTANCES = 2;
 
   @Override
   public void start(Future<Void> startFuture) throws Exception {
-    vertx.rxDeployVerticle("io.vertx.wiki.database.WikiDatabaseVerticle")
-      .flatMap(id -> vertx.rxDeployVerticle("io.vertx.wiki.http.HttpServerVerticle",
-        new DeploymentOptions().setInstances(2)))
+    DeploymentOptions options = new DeploymentOptions().setConfig(config());
+    vertx.rxDeployVerticle("io.vertx.wiki.database.WikiDatabaseVerticle", options)
+      .flatMap(id -> vertx.rxDeployVerticle("io.vertx.wiki.http.HttpServerVerticle", new DeploymentOptions(options)
+        .setInstances(config().getInteger(CONFIG_HTTP_SERVER_INSTANCES, DEFAULT_HTTP_SERVER_INSTANCES))))
       .subscribe(
         id -> startFuture.complete(),
         startFuture::fail
@@ -0,0 +1,19 @@
+package io.vertx.wiki;
+
+import io.vertx.core.Launcher;
+import io.vertx.core.VertxOptions;
+
+/**
+ * The Vert.x launcher, with metrics enabled so that {@code /metrics} also reports the Vert.x and JVM meters.
+ */
+public class WikiLauncher extends Launcher {
+
+  public static void main(String[] args) {
+    new WikiLauncher().dispatch(args);
+  }
+
+  @Override
+  public void beforeStartingVertx(VertxOptions options) {
+    options.setMetricsOptions(WikiMetrics.vertxMetricsOptions());
+  }
+}
@@ -0,0 +1,159 @@
+package io.vertx.wiki;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.reactivex.Completable;
+import io.reactivex.CompletableTransformer;
+import io.reactivex.Single;
+import io.reactivex.SingleTransformer;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import io.vertx.reactivex.core.Vertx;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Prometheus metrics of the wiki.
+ * <p>
+ * When Vert.x runs with the options of {@link #vertxMetricsOptions()}, as {@link WikiLauncher} starts it, the wiki
+ * meters share the Vert.x registry, next to the Vert.x meters (among them the JDBC connection pool in use and waiting
+ * counts, as {@code vertx_pool_inUse} and {@code vertx_pool_queue_size} with {@code pool_type="datasource"}) and the
+ * JVM ones. Otherwise, as in the tests, they go to a registry of their own.
+ * <p>
+ * Timers publish histogram buckets, so that Prometheus can compute percentiles across instances. Meters are cached
+ * per name and tags, since they are looked up on every request, service call and query.
+ */
+public final class WikiMetrics {
+
+  private static final long EVENT_LOOP_LAG_INTERVAL = 100;
+
+  private static final PrometheusMeterRegistry FALLBACK_REGISTRY = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+  private static volatile Meters meters = new Meters(FALLBACK_REGISTRY);
+
+  private WikiMetrics() {
+  }
+
+  public static MicrometerMetricsOptions vertxMetricsOptions() {
+    return new MicrometerMetricsOptions()
+      .setEnabled(true)
+      .setJvmMetricsEnabled(true)
+      .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true));
+  }
+
+  public static PrometheusMeterRegistry registry() {
+    MeterRegistry registry = BackendRegistries.getDefaultNow();
+    return registry instanceof PrometheusMeterRegistry ? (PrometheusMeterRegistry) registry : FALLBACK_REGISTRY;
+  }
+
+  public static Timer timer(String name, String description, String... tags) {
+    return meters().get(name, tags, registry -> Timer.builder(name)
+      .description(description)
+      .tags(tags)
+      .publishPercentileHistogram()
+      .register(registry));
+  }
+
+  public static DistributionSummary summary(String name, String description, String... tags) {
+    return meters().get(name, tags, registry -> DistributionSummary.builder(name)
+      .description(description)
+      .tags(tags)
+      .publishPercentileHistogram()
+      .register(registry));
+  }
+
+  /*
+   * The meters registered in the current registry, started over if Vert.x metrics come up after the first meters.
+   */
+  private static Meters meters() {
+    PrometheusMeterRegistry registry = registry();
+    Meters current = meters;
+    if (current.registry != registry) {
+      current = new Meters(registry);
+      meters = current;
+    }
+    return current;
+  }
+
+  /**
+   * Times each subscription to a {@code Single}, tagging it with its outcome.
+   */
+  public static <T> SingleTransformer<T, T> timed(String name, String description, String... tags) {
+    return upstream -> Single.defer(() -> {
+      long start = System.nanoTime();
+      return upstream
+        .doOnSuccess(result -> record(name, description, tags, "success", start))
+        .doOnError(t -> record(name, description, tags, "failure", start));
+    });
+  }
+
+  /**
+   * Times each subscription to a {@code Completable}, tagging it with its outcome.
+   */
+  public static CompletableTransformer timedCompletable(String name, String description, String... tags) {
+    return upstream -> Completable.defer(() -> {
+      long start = System.nanoTime();
+      return upstream
+        .doOnComplete(() -> record(name, description, tags, "success", start))
+        .doOnError(t -> record(name, description, tags, "failure", start));
+    });
+  }
+
+  private static void record(String name, String description, String[] tags, String outcome, long start) {
+    timer(name, description, withTag(tags, "outcome", outcome)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private static String[] withTag(String[] tags, String key, String value) {
+    String[] all = new String[tags.length + 2];
+    System.arraycopy(tags, 0, all, 0, tags.length);
+    all[tags.length] = key;
+    all[tags.length + 1] = value;
+    return all;
+  }
+
+  private static final class Meters {
+    final PrometheusMeterRegistry registry;
+    final ConcurrentHashMap<List<String>, Meter> cache = new ConcurrentHashMap<>();
+
+    Meters(PrometheusMeterRegistry registry) {
+      this.registry = registry;
+    }
+
+    @SuppressWarnings("unchecked")
+    <M extends Meter> M get(String name, String[] tags, Function<MeterRegistry, M> factory) {
+      String[] key = Arrays.copyOf(tags, tags.length + 1);
+      key[tags.length] = name;
+      List<String> id = Arrays.asList(key);
+      // A plain get first: computeIfAbsent locks its bin even when the meter is there
+      Meter meter = cache.get(id);
+      if (meter == null) {
+        meter = cache.computeIfAbsent(id, k -> factory.apply(registry));
+      }
+      return (M) meter;
+    }
+  }
+
+  /**
+   * Measures, from the calling verticle context, how late a periodic timer fires on its event loop. The lag is the
+   * time an event waits behind the handlers running on the same loop. The timer stops with the verticle.
+   */
+  public static void monitorEventLoop(Vertx vertx) {
+    long[] expected = {System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(EVENT_LOOP_LAG_INTERVAL)};
+    vertx.setPeriodic(EVENT_LOOP_LAG_INTERVAL, id -> {
+      long now = System.nanoTime();
+      timer("wiki.eventloop.lag", "Delay of a periodic timer on the event loop",
+        "loop", Thread.currentThread().getName())
+        .record(Math.max(0, now - expected[0]), TimeUnit.NANOSECONDS);
+      expected[0] = now + TimeUnit.MILLISECONDS.toNanos(EVENT_LOOP_LAG_INTERVAL);
+    });
+  }
+}
@@ -0,0 +1,136 @@
+package io.vertx.wiki.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Same-JVM delivery for {@link WikiDatabaseService}: calls the service implementation directly on the context of the
+ * verticle that registered it, then hands the result back on the caller context. Unlike the event bus proxy, arguments
+ * and results are neither encoded nor copied.
+ */
+class LocalWikiDatabaseService implements WikiDatabaseService, Shareable {
+
+  static final String LOCAL_SERVICES_MAP = "wikidb.local-services";
+
+  private final WikiDatabaseService service;
+  private final Context context;
+
+  LocalWikiDatabaseService(WikiDatabaseService service, Context context) {
+    this.service = service;
+    this.context = context;
+  }
+
+  @Override
+  public Shareable copy() {
+    return this;
+  }
+
+  private <T> void dispatch(Consumer<Handler<AsyncResult<T>>> call, Handler<AsyncResult<T>> resultHandler) {
+    Context caller = Vertx.currentContext();
+    context.runOnContext(v -> call.accept(ar -> {
+      if (caller == null || caller == context) {
+        resultHandler.handle(ar);
+      } else {
+        caller.runOnContext(v2 -> resultHandler.handle(ar));
+      }
+    }));
+  }
+
+  @Override
+  public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+    dispatch(service::fetchAllPages, resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+    dispatch(handler -> service.fetchPage(name, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Void>> resultHandler) {
+    dispatch(handler -> service.createPage(title, markdown, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService savePage(int id, String markdown, Handler<AsyncResult<Void>> resultHandler) {
+    dispatch(handler -> service.savePage(id, markdown, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService savePageDeferred(int id, String markdown, Handler<AsyncResult<Void>> resultHandler) {
+    dispatch(handler -> service.savePageDeferred(id, markdown, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
+    dispatch(handler -> service.deletePage(id, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    dispatch(service::fetchAllPagesData, resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+    dispatch(handler -> service.fetchPageById(id, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+    dispatch(handler -> service.fetchPageVersion(id, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchPageFetchStats(Handler<AsyncResult<JsonObject>> resultHandler) {
+    dispatch(service::fetchPageFetchStats, resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<JsonArray>> resultHandler) {
+    dispatch(handler -> service.fetchPagesByIds(ids, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchPageSummaries(int afterId, int limit, Handler<AsyncResult<JsonArray>> resultHandler) {
+    dispatch(handler -> service.fetchPageSummaries(afterId, limit, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchChanges(long since, int limit, Handler<AsyncResult<JsonObject>> resultHandler) {
+    dispatch(handler -> service.fetchChanges(since, limit, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<JsonArray>> resultHandler) {
+    dispatch(handler -> service.searchPages(query, limit, handler), resultHandler);
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService completePageNames(String prefix, int limit, Handler<AsyncResult<JsonArray>> resultHandler) {
+    dispatch(handler -> service.completePageNames(prefix, limit, handler), resultHandler);
+    return this;
+  }
+}
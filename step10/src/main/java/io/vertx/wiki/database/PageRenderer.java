@@ -0,0 +1,29 @@
+package io.vertx.wiki.database;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.wiki.jfr.WikiEvents;
+
+/**
+ * Renders page markdown to the HTML stored next to it in the {@code Pages} table.
+ * <p>
+ * Bump {@link #VERSION} whenever the HTML output changes: rows rendered by an older version are re-rendered in the
+ * background when the database verticle starts, and are not served until then. The HTTP validators of pages include
+ * it, so that clients do not keep HTML of an older version.
+ */
+public final class PageRenderer {
+
+  public static final int VERSION = 1;
+
+  private PageRenderer() {
+  }
+
+  /**
+   * @param pageId the page rendered, for flight recordings, or {@link WikiEvents#NO_PAGE} when it has no id yet
+   */
+  static String render(int pageId, String markdown) {
+    Object event = WikiEvents.beginMarkdownRender();
+    String html = Processor.process(markdown);
+    WikiEvents.endMarkdownRender(event, "stored", pageId, markdown, html);
+    return html;
+  }
+}
@@ -0,0 +1,148 @@
+package io.vertx.wiki.database;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory inverted index over page names and markdown, ranked with BM25.
+ * <p>
+ * Page names are indexed with a higher term weight than the content. The index is not thread-safe: it is only
+ * accessed from the database verticle context.
+ */
+class SearchIndex {
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final int NAME_WEIGHT = 3;
+
+  private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+  private final Map<Integer, Document> documents = new HashMap<>();
+  private long totalLength;
+
+  void add(int id, String name, String markdown) {
+    remove(id);
+    Map<String, Integer> frequencies = new HashMap<>();
+    int length = 0;
+    for (String term : tokenize(name)) {
+      frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+      length += NAME_WEIGHT;
+    }
+    for (String term : tokenize(markdown)) {
+      frequencies.merge(term, 1, Integer::sum);
+      length++;
+    }
+    frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+    documents.put(id, new Document(name, length, frequencies.keySet().toArray(new String[0])));
+    totalLength += length;
+  }
+
+  void update(int id, String markdown) {
+    Document document = documents.get(id);
+    if (document != null) {
+      add(id, document.name, markdown);
+    }
+  }
+
+  void remove(int id) {
+    Document document = documents.remove(id);
+    if (document == null) {
+      return;
+    }
+    for (String term : document.terms) {
+      Map<Integer, Integer> termPostings = postings.get(term);
+      termPostings.remove(id);
+      if (termPostings.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+    totalLength -= document.length;
+  }
+
+  String name(int id) {
+    Document document = documents.get(id);
+    return document != null ? document.name : null;
+  }
+
+  int size() {
+    return documents.size();
+  }
+
+  JsonArray search(String query, int limit) {
+    JsonArray results = new JsonArray();
+    if (documents.isEmpty() || limit <= 0) {
+      return results;
+    }
+    int count = documents.size();
+    double averageLength = (double) totalLength / count;
+    Map<Integer, Double> scores = new HashMap<>();
+    for (String term : new LinkedHashSet<>(tokenize(query))) {
+      Map<Integer, Integer> termPostings = postings.get(term);
+      if (termPostings == null) {
+        continue;
+      }
+      int df = termPostings.size();
+      double idf = Math.log(1.0 + (count - df + 0.5) / (df + 0.5));
+      termPostings.forEach((id, tf) -> {
+        double norm = K1 * (1.0 - B + B * documents.get(id).length / averageLength);
+        scores.merge(id, idf * tf * (K1 + 1.0) / (tf + norm), Double::sum);
+      });
+    }
+
+    PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(Comparator.comparingDouble(Map.Entry::getValue));
+    for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+      if (top.size() < limit) {
+        top.add(entry);
+      } else if (entry.getValue() > top.peek().getValue()) {
+        top.poll();
+        top.add(entry);
+      }
+    }
+    List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(top);
+    ranked.sort(Comparator.comparingDouble((Map.Entry<Integer, Double> entry) -> entry.getValue()).reversed());
+    for (Map.Entry<Integer, Double> entry : ranked) {
+      results.add(new JsonObject()
+        .put("id", entry.getKey())
+        .put("name", documents.get(entry.getKey()).name)
+        .put("score", entry.getValue()));
+    }
+    return results;
+  }
+
+  static List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    if (text == null) {
+      return terms;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        terms.add(text.substring(start, i).toLowerCase());
+        start = -1;
+      }
+    }
+    return terms;
+  }
+
+  private static final class Document {
+    final String name;
+    final int length;
+    final String[] terms;
+
+    Document(String name, int length, String[] terms) {
+      this.name = name;
+      this.length = length;
+      this.terms = terms;
+    }
+  }
+}
@@ -8,6 +8,20 @@ public enum SqlQuery {
   SAVE_PAGE,
   DELETE_PAGE,
   ALL_PAGES_DATA,
-  GET_PAGE_BY_ID
+  GET_PAGE_BY_ID,
+  PAGE_SUMMARIES,
+  GET_PAGES_BY_IDS,
+  PAGES_COLUMNS,
+  ADD_PAGES_HTML_COLUMN,
+  ADD_PAGES_RENDERER_VERSION_COLUMN,
+  ADD_PAGES_REVISION_COLUMN,
+  ADD_PAGES_UPDATED_COLUMN,
+  GET_PAGE_VERSION,
+  STALE_PAGE_IDS,
+  SAVE_PAGE_HTML,
+  CREATE_CHANGES_TABLE,
+  APPEND_CHANGE,
+  CHANGES_SINCE,
+  LAST_CHANGE
 }
 
@@ -0,0 +1,55 @@
+package io.vertx.wiki.database;
+
+import io.vertx.core.json.JsonArray;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted index of page names to page ids, used for listings and prefix completion without querying the database.
+ * A reverse map of ids to names lets deletions, which only know the id, remove by key.
+ */
+class TitleIndex {
+
+  private final ConcurrentNavigableMap<String, Integer> titles = new ConcurrentSkipListMap<>();
+  private final ConcurrentMap<Integer, String> namesById = new ConcurrentHashMap<>();
+
+  void add(String name, int id) {
+    String previous = namesById.put(id, name);
+    if (previous != null && !previous.equals(name)) {
+      titles.remove(previous, id);
+    }
+    titles.put(name, id);
+  }
+
+  void remove(int id) {
+    String name = namesById.remove(id);
+    if (name != null) {
+      titles.remove(name, id);
+    }
+  }
+
+  int size() {
+    return titles.size();
+  }
+
+  JsonArray names() {
+    JsonArray names = new JsonArray();
+    titles.keySet().forEach(names::add);
+    return names;
+  }
+
+  JsonArray complete(String prefix, int limit) {
+    JsonArray names = new JsonArray();
+    for (Map.Entry<String, Integer> entry : titles.tailMap(prefix).entrySet()) {
+      if (names.size() >= limit || !entry.getKey().startsWith(prefix)) {
+        break;
+      }
+      names.add(entry.getKey());
+    }
+    return names;
+  }
+}
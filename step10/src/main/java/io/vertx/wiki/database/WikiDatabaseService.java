@@ -19,13 +19,26 @@ import java.util.List;
 public interface WikiDatabaseService {
 
   @GenIgnore
-  static WikiDatabaseService create(JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries,
-                                    Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
-    return new WikiDatabaseServiceImpl(dbClient, sqlQueries, readyHandler);
+  static WikiDatabaseService create(io.vertx.reactivex.core.Vertx vertx, JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries,
+                                    long writeBehindWindow, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+    return new WikiDatabaseServiceImpl(vertx, dbClient, sqlQueries, writeBehindWindow, readyHandler);
   }
 
   @GenIgnore
   static io.vertx.wiki.database.reactivex.WikiDatabaseService createProxy(Vertx vertx, String address) {
+    return createProxy(vertx, address, true);
+  }
+
+  @GenIgnore
+  static io.vertx.wiki.database.reactivex.WikiDatabaseService createProxy(Vertx vertx, String address, boolean localDelivery) {
+    if (localDelivery) {
+      LocalWikiDatabaseService localService = vertx.sharedData()
+        .<String, LocalWikiDatabaseService>getLocalMap(LocalWikiDatabaseService.LOCAL_SERVICES_MAP)
+        .get(address);
+      if (localService != null) {
+        return new io.vertx.wiki.database.reactivex.WikiDatabaseService(localService);
+      }
+    }
     WikiDatabaseServiceVertxEBProxy wikiDatabaseServiceVertxEBProxy = new WikiDatabaseServiceVertxEBProxy(vertx, address);
     return new io.vertx.wiki.database.reactivex.WikiDatabaseService(wikiDatabaseServiceVertxEBProxy);
   }
@@ -42,6 +55,9 @@ public interface WikiDatabaseService {
   @Fluent
   WikiDatabaseService savePage(int id, String markdown, Handler<AsyncResult<Void>> resultHandler);
 
+  @Fluent
+  WikiDatabaseService savePageDeferred(int id, String markdown, Handler<AsyncResult<Void>> resultHandler);
+
   @Fluent
   WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler);
 
@@ -50,4 +66,25 @@ public interface WikiDatabaseService {
 
   @Fluent
   WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  @Fluent
+  WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  @Fluent
+  WikiDatabaseService fetchPageFetchStats(Handler<AsyncResult<JsonObject>> resultHandler);
+
+  @Fluent
+  WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  @Fluent
+  WikiDatabaseService fetchPageSummaries(int afterId, int limit, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  @Fluent
+  WikiDatabaseService fetchChanges(long since, int limit, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  @Fluent
+  WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  @Fluent
+  WikiDatabaseService completePageNames(String prefix, int limit, Handler<AsyncResult<JsonArray>> resultHandler);
 }
@@ -2,87 +2,430 @@ package io.vertx.wiki.database;
 
 import io.reactivex.Flowable;
 import io.reactivex.Single;
+import io.reactivex.SingleTransformer;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.UpdateResult;
 import io.vertx.reactivex.CompletableHelper;
 import io.vertx.reactivex.SingleHelper;
+import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.ext.jdbc.JDBCClient;
 import io.vertx.reactivex.ext.sql.SQLClientHelper;
+import io.vertx.reactivex.ext.sql.SQLRowStream;
+import io.vertx.wiki.WikiMetrics;
+import io.vertx.wiki.jfr.WikiEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static io.vertx.wiki.DatabaseConstants.WIKIDB_CHANGES_ADDRESS;
 
 @SuppressWarnings("Duplicates")
 public class WikiDatabaseServiceImpl implements WikiDatabaseService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WikiDatabaseServiceImpl.class);
+  private static final long MAX_FLUSH_RETRY_DELAY = 30_000;
+
+  /*
+   * Columns added to the Pages table after its first release, with the statement adding each of them to an existing
+   * table.
+   */
+  private static final Map<String, SqlQuery> ADDED_PAGES_COLUMNS = new LinkedHashMap<>();
+
+  static {
+    ADDED_PAGES_COLUMNS.put("HTML", SqlQuery.ADD_PAGES_HTML_COLUMN);
+    ADDED_PAGES_COLUMNS.put("RENDERERVERSION", SqlQuery.ADD_PAGES_RENDERER_VERSION_COLUMN);
+    ADDED_PAGES_COLUMNS.put("REVISION", SqlQuery.ADD_PAGES_REVISION_COLUMN);
+    ADDED_PAGES_COLUMNS.put("UPDATED", SqlQuery.ADD_PAGES_UPDATED_COLUMN);
+  }
 
   private final HashMap<SqlQuery, String> sqlQueries;
   private final JDBCClient dbClient;
+  private final Vertx vertx;
+  private final SearchIndex searchIndex = new SearchIndex();
+  private final TitleIndex titleIndex = new TitleIndex();
 
-  WikiDatabaseServiceImpl(JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+  /*
+   * Write-behind state. Only touched from the verticle context, so no synchronization is needed.
+   */
+  private final long writeBehindWindow;
+  private Map<Integer, String> pendingSaves = new LinkedHashMap<>();
+  private Map<Integer, String> flushingSaves = Collections.emptyMap();
+  private List<Handler<AsyncResult<Void>>> pendingAcks = new ArrayList<>();
+  private boolean flushScheduled;
+  private int flushFailures;
+
+  /*
+   * Single-flight state: concurrent fetches of the same page wait for one query, keyed by page name or id. Also only
+   * touched from the verticle context.
+   */
+  private final Map<String, List<Handler<AsyncResult<JsonObject>>>> pageFetches = new HashMap<>();
+  private final Map<Integer, List<Handler<AsyncResult<JsonObject>>>> pageByIdFetches = new HashMap<>();
+  private long pageQueries;
+  private long coalescedPageFetches;
+
+  WikiDatabaseServiceImpl(Vertx vertx, JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries, long writeBehindWindow,
+                          Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+    this.vertx = vertx;
     this.dbClient = dbClient;
     this.sqlQueries = sqlQueries;
+    this.writeBehindWindow = writeBehindWindow;
 
     SQLClientHelper.usingConnectionSingle(this.dbClient, conn -> conn
       .rxExecute(sqlQueries.get(SqlQuery.CREATE_PAGES_TABLE))
+      .andThen(conn.rxExecute(sqlQueries.get(SqlQuery.CREATE_CHANGES_TABLE)))
+      .andThen(conn.rxQuery(sqlQueries.get(SqlQuery.PAGES_COLUMNS)).compose(measuredQuery(SqlQuery.PAGES_COLUMNS)))
+      .flatMapCompletable(result -> {
+        Set<String> columns = new HashSet<>();
+        result.getResults().forEach(row -> columns.add(row.getString(0)));
+        return Flowable.fromIterable(ADDED_PAGES_COLUMNS.entrySet())
+          .filter(column -> !columns.contains(column.getKey()))
+          .concatMapCompletable(column -> conn.rxExecute(sqlQueries.get(column.getValue())));
+      })
+      .andThen(conn.rxQueryStream(sqlQueries.get(SqlQuery.ALL_PAGES_DATA)))
+      .flatMapPublisher(SQLRowStream::toFlowable)
+      .doOnNext(row -> {
+        titleIndex.add(row.getString(1), row.getInteger(0));
+        searchIndex.add(row.getInteger(0), row.getString(1), row.getString(2));
+      })
+      .ignoreElements()
       .andThen(Single.just(this)))
+      .doOnSuccess(service -> {
+        LOGGER.info("Indexed " + searchIndex.size() + " pages for search");
+        renderStalePages();
+      })
       .subscribe(SingleHelper.toObserver(readyHandler));
   }
 
+  /*
+   * Re-renders, one page at a time, the rows whose stored HTML was produced by an older renderer version (or by none,
+   * for rows written before the column existed). A page saved in the meantime already has current HTML, so the update
+   * only applies to rows that are still stale.
+   */
+  private void renderStalePages() {
+    dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.STALE_PAGE_IDS), new JsonArray().add(PageRenderer.VERSION))
+      .compose(measuredQuery(SqlQuery.STALE_PAGE_IDS))
+      .flatMapPublisher(result -> Flowable.fromIterable(result.getResults()))
+      .map(row -> row.getInteger(0))
+      .concatMapMaybe(id -> dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE_BY_ID), new JsonArray().add(id))
+        .compose(measuredQuery(SqlQuery.GET_PAGE_BY_ID))
+        .filter(result -> result.getNumRows() > 0)
+        .flatMapSingleElement(result -> render(id, result.getResults().get(0).getString(2)))
+        .flatMapSingleElement(html -> dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE_HTML), new JsonArray()
+          .add(html).add(PageRenderer.VERSION).add(id).add(PageRenderer.VERSION))
+          .compose(measuredUpdate(SqlQuery.SAVE_PAGE_HTML))))
+      .filter(result -> result.getUpdated() > 0)
+      .count()
+      .subscribe(count -> {
+        if (count > 0) {
+          LOGGER.info("Re-rendered " + count + " pages with renderer version " + PageRenderer.VERSION);
+        }
+      }, t -> LOGGER.error("Could not re-render stale pages", t));
+  }
+
+  /*
+   * Ordered, so that two saves of the same page reach the database in the order they were requested.
+   */
+  private Single<String> render(int pageId, String markdown) {
+    return vertx.<String>rxExecuteBlocking(future -> future.complete(PageRenderer.render(pageId, markdown)), true)
+      .toSingle();
+  }
+
+  /*
+   * Each statement records its execution time and the rows it returned or changed, tagged with its query.
+   */
+  private static SingleTransformer<ResultSet, ResultSet> measuredQuery(SqlQuery query) {
+    return measured(query, ResultSet::getNumRows);
+  }
+
+  private static SingleTransformer<UpdateResult, UpdateResult> measuredUpdate(SqlQuery query) {
+    return measured(query, UpdateResult::getUpdated);
+  }
+
+  private static SingleTransformer<List<Integer>, List<Integer>> measuredBatch(SqlQuery query) {
+    return measured(query, counts -> counts.stream().mapToInt(Integer::intValue).sum());
+  }
+
+  private static <T> SingleTransformer<T, T> measured(SqlQuery query, ToIntFunction<T> rows) {
+    String name = query.name().toLowerCase();
+    return upstream -> Single.defer(() -> {
+      Object event = WikiEvents.beginSqlQuery();
+      return upstream
+        .compose(WikiMetrics.<T>timed("wiki.sql.query", "Execution time of a SQL query", "query", name))
+        .doOnSuccess(result -> {
+          int count = rows.applyAsInt(result);
+          WikiMetrics.summary("wiki.sql.query.rows", "Rows returned or changed by a SQL query", "query", name)
+            .record(count);
+          WikiEvents.endSqlQuery(event, name, count, true);
+        })
+        .doOnError(t -> WikiEvents.endSqlQuery(event, name, 0, false));
+    });
+  }
+
 
   @Override
   public WikiDatabaseService fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
-    dbClient.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES))
-      .flatMapPublisher(res -> {
-        List<JsonArray> results = res.getResults();
-        return Flowable.fromIterable(results);
-      })
-      .map(json -> json.getString(0))
-      .sorted()
-      .collect(JsonArray::new, JsonArray::add)
-      .subscribe(SingleHelper.toObserver(resultHandler));
+    resultHandler.handle(Future.succeededFuture(titleIndex.names()));
     return this;
   }
 
   @Override
   public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
-    dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE), new JsonArray().add(name))
+    coalesce(pageFetches, name, resultHandler, () -> dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE), new JsonArray().add(name))
+      .compose(measuredQuery(SqlQuery.GET_PAGE))
       .map(result -> {
         if (result.getNumRows() == 0) {
           return new JsonObject().put("found", false);
         } else {
           JsonArray row = result.getResults().get(0);
-          return new JsonObject()
+          return putVersion(new JsonObject()
             .put("found", true)
             .put("id", row.getInteger(0))
-            .put("rawContent", row.getString(1));
+            .put("rawContent", pendingContent(row.getInteger(0), row.getString(1)))
+            .put("html", storedHtml(row.getInteger(0), row.getString(2), row.getInteger(3))), row.getInteger(4), row.getLong(5));
         }
-      }).subscribe(SingleHelper.toObserver(resultHandler));
+      }));
+    return this;
+  }
+
+  /*
+   * Joins the query in flight for the key, if any, or starts one. Every waiter but the first gets its own copy of the
+   * result, since local delivery hands results over without copying them.
+   */
+  private <K> void coalesce(Map<K, List<Handler<AsyncResult<JsonObject>>>> inFlight, K key,
+                            Handler<AsyncResult<JsonObject>> resultHandler, Supplier<Single<JsonObject>> query) {
+    List<Handler<AsyncResult<JsonObject>>> waiters = inFlight.get(key);
+    if (waiters != null) {
+      coalescedPageFetches++;
+      waiters.add(resultHandler);
+      return;
+    }
+    List<Handler<AsyncResult<JsonObject>>> handlers = new ArrayList<>();
+    handlers.add(resultHandler);
+    inFlight.put(key, handlers);
+    pageQueries++;
+    query.get().subscribe((page, t) -> {
+      inFlight.remove(key, handlers);
+      for (int i = 0; i < handlers.size(); i++) {
+        handlers.get(i).handle(t != null ? Future.failedFuture(t) : Future.succeededFuture(i == 0 ? page : page.copy()));
+      }
+    });
+  }
+
+  /*
+   * Called once a write is visible: fetches started before it may return the previous content, so later fetches must
+   * not join them. The detached queries still answer their own waiters.
+   */
+  private void detachPageFetches() {
+    pageFetches.clear();
+    pageByIdFetches.clear();
+  }
+
+  /**
+   * Reports how many page fetches by name or id ran a query and how many joined a query already in flight for the
+   * same page, as {@code {"queries", "coalesced", "inFlight"}}.
+   */
+  @Override
+  public WikiDatabaseService fetchPageFetchStats(Handler<AsyncResult<JsonObject>> resultHandler) {
+    resultHandler.handle(Future.succeededFuture(new JsonObject()
+      .put("queries", pageQueries)
+      .put("coalesced", coalescedPageFetches)
+      .put("inFlight", pageFetches.size() + pageByIdFetches.size())));
     return this;
   }
 
   @Override
   public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Void>> resultHandler) {
-    dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.CREATE_PAGE), new JsonArray().add(title).add(markdown))
+    render(WikiEvents.NO_PAGE, markdown)
+      .flatMap(html -> SQLClientHelper.inTransactionSingle(dbClient, conn -> conn
+        .rxUpdateWithParams(sqlQueries.get(SqlQuery.CREATE_PAGE), new JsonArray()
+          .add(title).add(markdown).add(html).add(PageRenderer.VERSION).add(System.currentTimeMillis()))
+        .compose(measuredUpdate(SqlQuery.CREATE_PAGE))
+        .flatMap(result -> conn
+          .rxUpdateWithParams(sqlQueries.get(SqlQuery.APPEND_CHANGE), change(result.getKeys().getInteger(0), title, "created"))
+          .compose(measuredUpdate(SqlQuery.APPEND_CHANGE))
+          .map(change -> result))))
+      .doOnSuccess(result -> {
+        int id = result.getKeys().getInteger(0);
+        titleIndex.add(title, id);
+        searchIndex.add(id, title, markdown);
+        detachPageFetches();
+      })
       .ignoreElement()
+      .doOnComplete(this::publishChanges)
       .subscribe(CompletableHelper.toObserver(resultHandler));
     return this;
   }
 
   @Override
   public WikiDatabaseService savePage(int id, String markdown, Handler<AsyncResult<Void>> resultHandler) {
-    dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE), new JsonArray().add(markdown).add(id))
+    if (writeBehindWindow > 0) {
+      enqueueSave(id, markdown, resultHandler);
+      return this;
+    }
+    render(id, markdown)
+      .flatMap(html -> SQLClientHelper.inTransactionSingle(dbClient, conn -> conn
+        .rxUpdateWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE), new JsonArray()
+          .add(markdown).add(html).add(PageRenderer.VERSION).add(System.currentTimeMillis()).add(id))
+        .compose(measuredUpdate(SqlQuery.SAVE_PAGE))
+        .flatMap(result -> result.getUpdated() == 0 ? Single.just(result) : conn
+          .rxUpdateWithParams(sqlQueries.get(SqlQuery.APPEND_CHANGE), change(id, searchIndex.name(id), "updated"))
+          .compose(measuredUpdate(SqlQuery.APPEND_CHANGE)))))
       .ignoreElement()
+      .doOnComplete(() -> {
+        searchIndex.update(id, markdown);
+        detachPageFetches();
+        publishChanges();
+      })
       .subscribe(CompletableHelper.toObserver(resultHandler));
     return this;
   }
 
+  /**
+   * Same as {@link #savePage(int, String, Handler)}, except that in write-behind mode the result handler is called
+   * as soon as the save is queued, before it has been written to the database.
+   */
+  @Override
+  public WikiDatabaseService savePageDeferred(int id, String markdown, Handler<AsyncResult<Void>> resultHandler) {
+    if (writeBehindWindow > 0) {
+      enqueueSave(id, markdown, null);
+      resultHandler.handle(Future.succeededFuture());
+      return this;
+    }
+    return savePage(id, markdown, resultHandler);
+  }
+
+  private void enqueueSave(int id, String markdown, Handler<AsyncResult<Void>> ack) {
+    pendingSaves.put(id, markdown);
+    searchIndex.update(id, markdown);
+    if (ack != null) {
+      pendingAcks.add(ack);
+    }
+    if (!flushScheduled) {
+      flushScheduled = true;
+      vertx.setTimer(writeBehindWindow, tid -> flushPendingSaves());
+    }
+  }
+
+  /*
+   * Only one batch is in flight at a time, so that an older batch can never overwrite the content of a newer one.
+   *
+   * Deferred saves were already acknowledged and the search index already matches them, so a batch that fails is
+   * not dropped: its saves go back to the queue, behind any newer save of the same page, and are retried with an
+   * exponential backoff until they are written. Durable saves are acknowledged once their retry succeeds.
+   */
+  private void flushPendingSaves() {
+    flushingSaves = pendingSaves;
+    pendingSaves = new LinkedHashMap<>();
+    List<Handler<AsyncResult<Void>>> acks = pendingAcks;
+    pendingAcks = new ArrayList<>();
+
+    Map<Integer, String> saves = flushingSaves;
+    List<JsonArray> batch = new ArrayList<>(saves.size());
+    List<JsonArray> changes = new ArrayList<>(saves.size());
+    saves.keySet().stream()
+      .filter(id -> searchIndex.name(id) != null)
+      .forEach(id -> changes.add(change(id, searchIndex.name(id), "updated")));
+
+    vertx.rxExecuteBlocking(future -> {
+      long updated = System.currentTimeMillis();
+      saves.forEach((id, markdown) -> batch.add(new JsonArray()
+        .add(markdown).add(PageRenderer.render(id, markdown)).add(PageRenderer.VERSION).add(updated).add(id)));
+      future.complete();
+    }, true)
+      .ignoreElement()
+      .andThen(SQLClientHelper.inTransactionSingle(dbClient, conn -> conn
+        .rxBatchWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE), batch)
+        .compose(measuredBatch(SqlQuery.SAVE_PAGE))
+        .flatMap(result -> changes.isEmpty() ? Single.just(result) : conn
+          .rxBatchWithParams(sqlQueries.get(SqlQuery.APPEND_CHANGE), changes)
+          .compose(measuredBatch(SqlQuery.APPEND_CHANGE)))))
+      .ignoreElement()
+      .subscribe(
+        () -> {
+          flushingSaves = Collections.emptyMap();
+          flushFailures = 0;
+          if (pendingSaves.isEmpty()) {
+            flushScheduled = false;
+          } else {
+            vertx.setTimer(writeBehindWindow, tid -> flushPendingSaves());
+          }
+          detachPageFetches();
+          publishChanges();
+          acks.forEach(ack -> ack.handle(Future.succeededFuture()));
+        },
+        t -> {
+          long delay = Math.min(MAX_FLUSH_RETRY_DELAY, writeBehindWindow << Math.min(++flushFailures, 10));
+          LOGGER.error("Could not write " + saves.size() + " coalesced page saves, retrying in " + delay + " ms", t);
+          Map<Integer, String> retry = new LinkedHashMap<>(saves);
+          retry.putAll(pendingSaves);
+          pendingSaves = retry;
+          flushingSaves = Collections.emptyMap();
+          acks.addAll(pendingAcks);
+          pendingAcks = acks;
+          vertx.setTimer(delay, tid -> flushPendingSaves());
+        });
+  }
+
+  private String pendingContent(int id, String content) {
+    String pending = pendingSaves.get(id);
+    if (pending == null) {
+      pending = flushingSaves.get(id);
+    }
+    return pending != null ? pending : content;
+  }
+
+  /*
+   * The stored HTML is only served when it was rendered by the current renderer and no queued save is about to
+   * replace the content it was rendered from. Callers render the markdown themselves otherwise.
+   */
+  private JsonObject putVersion(JsonObject page, int revision, long updated) {
+    int id = page.getInteger("id");
+    if (!pendingSaves.containsKey(id) && !flushingSaves.containsKey(id)) {
+      page.put("revision", revision).put("updated", updated);
+    }
+    return page;
+  }
+
+  private String storedHtml(int id, String html, Integer rendererVersion) {
+    if (rendererVersion == null || rendererVersion != PageRenderer.VERSION) {
+      return null;
+    }
+    if (pendingSaves.containsKey(id) || flushingSaves.containsKey(id)) {
+      return null;
+    }
+    return html;
+  }
+
   @Override
   public WikiDatabaseService deletePage(int id, Handler<AsyncResult<Void>> resultHandler) {
-    dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.DELETE_PAGE), new JsonArray().add(id))
+    JsonArray change = change(id, searchIndex.name(id), "deleted");
+    SQLClientHelper.inTransactionSingle(dbClient, conn -> conn
+      .rxUpdateWithParams(sqlQueries.get(SqlQuery.DELETE_PAGE), new JsonArray().add(id))
+      .compose(measuredUpdate(SqlQuery.DELETE_PAGE))
+      .flatMap(result -> result.getUpdated() == 0 ? Single.just(result) : conn
+        .rxUpdateWithParams(sqlQueries.get(SqlQuery.APPEND_CHANGE), change)
+        .compose(measuredUpdate(SqlQuery.APPEND_CHANGE))))
       .ignoreElement()
+      .doOnComplete(() -> {
+        titleIndex.remove(id);
+        searchIndex.remove(id);
+        detachPageFetches();
+        publishChanges();
+      })
       .subscribe(CompletableHelper.toObserver(resultHandler));
     return this;
   }
@@ -90,26 +433,150 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
   @Override
   public WikiDatabaseService fetchAllPagesData(Handler<AsyncResult<List<JsonObject>>> resultHandler) {
     dbClient.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES_DATA))
+      .compose(measuredQuery(SqlQuery.ALL_PAGES_DATA))
       .map(ResultSet::getRows)
+      .doOnSuccess(rows -> rows.forEach(row -> row.put("CONTENT", pendingContent(row.getInteger("ID"), row.getString("CONTENT")))))
       .subscribe(SingleHelper.toObserver(resultHandler));
     return this;
   }
 
   @Override
   public WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
-    dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE_BY_ID), new JsonArray().add(id))
+    coalesce(pageByIdFetches, id, resultHandler, () -> dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE_BY_ID), new JsonArray().add(id))
+      .compose(measuredQuery(SqlQuery.GET_PAGE_BY_ID))
       .map(result -> {
         if (result.getNumRows() > 0) {
           JsonObject row = result.getRows().get(0);
-          return new JsonObject()
+          return putVersion(new JsonObject()
             .put("found", true)
             .put("id", row.getInteger("ID"))
             .put("name", row.getString("NAME"))
-            .put("content", row.getString("CONTENT"));
+            .put("content", pendingContent(id, row.getString("CONTENT")))
+            .put("html", storedHtml(id, row.getString("HTML"), row.getInteger("RENDERERVERSION"))),
+            row.getInteger("REVISION"), row.getLong("UPDATED"));
         } else {
           return new JsonObject().put("found", false);
         }
+      }));
+    return this;
+  }
+
+  /**
+   * Fetches the revision and last update time of a page, without its content, as
+   * {@code {"found", "id", "revision", "updated"}}. The revision and update time are left out while a save of the
+   * page is queued in write-behind mode, since they do not describe the content being served.
+   */
+  @Override
+  public WikiDatabaseService fetchPageVersion(int id, Handler<AsyncResult<JsonObject>> resultHandler) {
+    dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE_VERSION), new JsonArray().add(id))
+      .compose(measuredQuery(SqlQuery.GET_PAGE_VERSION))
+      .map(result -> {
+        if (result.getNumRows() == 0) {
+          return new JsonObject().put("found", false);
+        }
+        JsonArray row = result.getResults().get(0);
+        return putVersion(new JsonObject().put("found", true).put("id", id), row.getInteger(0), row.getLong(1));
       }).subscribe(SingleHelper.toObserver(resultHandler));
     return this;
   }
+
+  @Override
+  public WikiDatabaseService fetchPagesByIds(List<Integer> ids, Handler<AsyncResult<JsonArray>> resultHandler) {
+    if (ids.isEmpty()) {
+      resultHandler.handle(Future.succeededFuture(new JsonArray()));
+      return this;
+    }
+    String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+    dbClient.rxQueryWithParams(String.format(sqlQueries.get(SqlQuery.GET_PAGES_BY_IDS), placeholders), new JsonArray(new ArrayList<>(ids)))
+      .compose(measuredQuery(SqlQuery.GET_PAGES_BY_IDS))
+      .flatMapPublisher(res -> Flowable.fromIterable(res.getResults()))
+      .map(row -> putVersion(new JsonObject()
+        .put("id", row.getInteger(0))
+        .put("name", row.getString(1))
+        .put("content", pendingContent(row.getInteger(0), row.getString(2)))
+        .put("html", storedHtml(row.getInteger(0), row.getString(3), row.getInteger(4))), row.getInteger(5), row.getLong(6)))
+      .collect(JsonArray::new, JsonArray::add)
+      .subscribe(SingleHelper.toObserver(resultHandler));
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService fetchPageSummaries(int afterId, int limit, Handler<AsyncResult<JsonArray>> resultHandler) {
+    dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.PAGE_SUMMARIES), new JsonArray().add(afterId).add(limit))
+      .compose(measuredQuery(SqlQuery.PAGE_SUMMARIES))
+      .flatMapPublisher(res -> Flowable.fromIterable(res.getResults()))
+      .map(row -> new JsonObject()
+        .put("id", row.getInteger(0))
+        .put("name", row.getString(1)))
+      .collect(JsonArray::new, JsonArray::add)
+      .subscribe(SingleHelper.toObserver(resultHandler));
+    return this;
+  }
+
+  /**
+   * Fetches the page changes recorded after sequence number {@code since}, as
+   * {@code {"changes": [{"seq", "id", "name", "kind"}], "last": seq}} where {@code kind} is one of {@code created},
+   * {@code updated} or {@code deleted}, and {@code last} is the sequence number to resume from. A negative
+   * {@code since} returns no changes and the current position of the change log.
+   */
+  @Override
+  public WikiDatabaseService fetchChanges(long since, int limit, Handler<AsyncResult<JsonObject>> resultHandler) {
+    if (since < 0) {
+      dbClient.rxQuery(sqlQueries.get(SqlQuery.LAST_CHANGE))
+        .compose(measuredQuery(SqlQuery.LAST_CHANGE))
+        .map(result -> {
+          Long last = result.getResults().get(0).getLong(0);
+          return new JsonObject()
+            .put("changes", new JsonArray())
+            .put("last", last != null ? last : 0L);
+        })
+        .subscribe(SingleHelper.toObserver(resultHandler));
+      return this;
+    }
+    dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.CHANGES_SINCE), new JsonArray().add(since).add(limit))
+      .compose(measuredQuery(SqlQuery.CHANGES_SINCE))
+      .map(result -> {
+        JsonArray changes = new JsonArray();
+        long last = since;
+        for (JsonArray row : result.getResults()) {
+          last = row.getLong(0);
+          changes.add(new JsonObject()
+            .put("seq", last)
+            .put("id", row.getInteger(1))
+            .put("name", row.getString(2))
+            .put("kind", row.getString(3)));
+        }
+        return new JsonObject()
+          .put("changes", changes)
+          .put("last", last);
+      })
+      .subscribe(SingleHelper.toObserver(resultHandler));
+    return this;
+  }
+
+  private static JsonArray change(int id, String name, String kind) {
+    JsonArray change = new JsonArray().add(id);
+    if (name != null) {
+      change.add(name);
+    } else {
+      change.addNull();
+    }
+    return change.add(kind);
+  }
+
+  private void publishChanges() {
+    vertx.eventBus().publish(WIKIDB_CHANGES_ADDRESS, new JsonObject());
+  }
+
+  @Override
+  public WikiDatabaseService searchPages(String query, int limit, Handler<AsyncResult<JsonArray>> resultHandler) {
+    resultHandler.handle(Future.succeededFuture(searchIndex.search(query, limit)));
+    return this;
+  }
+
+  @Override
+  public WikiDatabaseService completePageNames(String prefix, int limit, Handler<AsyncResult<JsonArray>> resultHandler) {
+    resultHandler.handle(Future.succeededFuture(titleIndex.complete(prefix, limit)));
+    return this;
+  }
 }
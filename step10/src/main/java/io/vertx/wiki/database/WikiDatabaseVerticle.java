@@ -5,6 +5,7 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.reactivex.core.AbstractVerticle;
 import io.vertx.reactivex.ext.jdbc.JDBCClient;
 import io.vertx.serviceproxy.ServiceBinder;
+import io.vertx.wiki.WikiMetrics;
 
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -41,6 +42,20 @@ public class WikiDatabaseVerticle extends AbstractVerticle {
     sqlQueries.put(SqlQuery.DELETE_PAGE, queriesProps.getProperty("delete-page"));
     sqlQueries.put(SqlQuery.ALL_PAGES_DATA, queriesProps.getProperty("all-pages-data"));
     sqlQueries.put(SqlQuery.GET_PAGE_BY_ID, queriesProps.getProperty("get-page-by-id"));
+    sqlQueries.put(SqlQuery.PAGE_SUMMARIES, queriesProps.getProperty("page-summaries"));
+    sqlQueries.put(SqlQuery.GET_PAGES_BY_IDS, queriesProps.getProperty("get-pages-by-ids"));
+    sqlQueries.put(SqlQuery.PAGES_COLUMNS, queriesProps.getProperty("pages-columns"));
+    sqlQueries.put(SqlQuery.ADD_PAGES_HTML_COLUMN, queriesProps.getProperty("add-pages-html-column"));
+    sqlQueries.put(SqlQuery.ADD_PAGES_RENDERER_VERSION_COLUMN, queriesProps.getProperty("add-pages-renderer-version-column"));
+    sqlQueries.put(SqlQuery.ADD_PAGES_REVISION_COLUMN, queriesProps.getProperty("add-pages-revision-column"));
+    sqlQueries.put(SqlQuery.ADD_PAGES_UPDATED_COLUMN, queriesProps.getProperty("add-pages-updated-column"));
+    sqlQueries.put(SqlQuery.GET_PAGE_VERSION, queriesProps.getProperty("get-page-version"));
+    sqlQueries.put(SqlQuery.STALE_PAGE_IDS, queriesProps.getProperty("stale-page-ids"));
+    sqlQueries.put(SqlQuery.SAVE_PAGE_HTML, queriesProps.getProperty("save-page-html"));
+    sqlQueries.put(SqlQuery.CREATE_CHANGES_TABLE, queriesProps.getProperty("create-changes-table"));
+    sqlQueries.put(SqlQuery.APPEND_CHANGE, queriesProps.getProperty("append-change"));
+    sqlQueries.put(SqlQuery.CHANGES_SINCE, queriesProps.getProperty("changes-since"));
+    sqlQueries.put(SqlQuery.LAST_CHANGE, queriesProps.getProperty("last-change"));
     return sqlQueries;
   }
 
@@ -56,16 +71,26 @@ public class WikiDatabaseVerticle extends AbstractVerticle {
       .put("driver_class", config().getString(CONFIG_WIKIDB_JDBC_DRIVER_CLASS, DEFAULT_WIKIDB_JDBC_DRIVER_CLASS))
       .put("max_pool_size", config().getInteger(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, DEFAULT_JDBC_MAX_POOL_SIZE)));
 
-    WikiDatabaseService.create(dbClient, sqlQueries, ready -> {
+    long writeBehindWindow = config().getLong(CONFIG_WIKIDB_WRITE_BEHIND_WINDOW, DEFAULT_WIKIDB_WRITE_BEHIND_WINDOW);
+    WikiDatabaseService.create(vertx, dbClient, sqlQueries, writeBehindWindow, ready -> {
       if (ready.succeeded()) {
         ServiceBinder binder = new ServiceBinder(vertx.getDelegate());
         binder
           .setAddress(CONFIG_WIKIDB_QUEUE)
           .register(WikiDatabaseService.class, ready.result());
+        vertx.sharedData()
+          .<String, LocalWikiDatabaseService>getLocalMap(LocalWikiDatabaseService.LOCAL_SERVICES_MAP)
+          .put(CONFIG_WIKIDB_QUEUE, new LocalWikiDatabaseService(ready.result(), context));
+        WikiMetrics.monitorEventLoop(vertx);
         startFuture.complete();
       } else {
         startFuture.fail(ready.cause());
       }
     });
   }
+
+  @Override
+  public void stop() throws Exception {
+    vertx.sharedData().getLocalMap(LocalWikiDatabaseService.LOCAL_SERVICES_MAP).remove(CONFIG_WIKIDB_QUEUE);
+  }
 }
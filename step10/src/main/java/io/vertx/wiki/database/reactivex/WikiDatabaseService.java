@@ -2,61 +2,121 @@ package io.vertx.wiki.database.reactivex;
 
 import io.reactivex.Completable;
 import io.reactivex.Single;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.reactivex.CompletableHelper;
 import io.vertx.reactivex.SingleHelper;
+import io.vertx.wiki.WikiMetrics;
 import io.vertx.wiki.database.WikiDatabaseServiceVertxEBProxy;
+import io.vertx.wiki.jfr.WikiEvents;
 
 import java.util.List;
 
 public class WikiDatabaseService {
-  private WikiDatabaseServiceVertxEBProxy wikiDatabaseServiceVertxEBProxy;
+  private static final String CALLS_METER = "wiki.dbservice.calls";
+  private static final String CALLS_DESCRIPTION = "Latency of a database service call, as seen by the caller";
 
-  public WikiDatabaseService(WikiDatabaseServiceVertxEBProxy wikiDatabaseServiceVertxEBProxy) {
-    this.wikiDatabaseServiceVertxEBProxy = wikiDatabaseServiceVertxEBProxy;
+  private io.vertx.wiki.database.WikiDatabaseService delegate;
+  private final String delivery;
+
+  public WikiDatabaseService(io.vertx.wiki.database.WikiDatabaseService delegate) {
+    this.delegate = delegate;
+    this.delivery = delegate instanceof WikiDatabaseServiceVertxEBProxy ? "eventbus" : "local";
+  }
+
+  /*
+   * Calls are timed from the caller side, so that event bus calls include the round trip to the service. Calls about
+   * a page also report its id, and the markdown sent if any, to flight recordings.
+   */
+  private <T> Single<T> timed(String method, Single<T> call) {
+    return timed(method, WikiEvents.NO_PAGE, null, call);
+  }
+
+  private <T> Single<T> timed(String method, int pageId, String markdown, Single<T> call) {
+    return Single.defer(() -> {
+      Object event = WikiEvents.beginServiceCall();
+      return call
+        .compose(WikiMetrics.<T>timed(CALLS_METER, CALLS_DESCRIPTION, "method", method, "delivery", delivery))
+        .doOnSuccess(result -> endEvent(event, method, pageId, markdown, true))
+        .doOnError(t -> endEvent(event, method, pageId, markdown, false));
+    });
+  }
+
+  private Completable timed(String method, Completable call) {
+    return timed(method, WikiEvents.NO_PAGE, null, call);
+  }
+
+  private Completable timed(String method, int pageId, String markdown, Completable call) {
+    return Completable.defer(() -> {
+      Object event = WikiEvents.beginServiceCall();
+      return call
+        .compose(WikiMetrics.timedCompletable(CALLS_METER, CALLS_DESCRIPTION, "method", method, "delivery", delivery))
+        .doOnComplete(() -> endEvent(event, method, pageId, markdown, true))
+        .doOnError(t -> endEvent(event, method, pageId, markdown, false));
+    });
+  }
+
+  private void endEvent(Object event, String method, int pageId, String markdown, boolean succeeded) {
+    WikiEvents.endServiceCall(event, method, delivery, pageId, markdown != null ? markdown.length() : 0, succeeded);
   }
 
   public Single<JsonArray> rxFetchAllPages() {
-    Future<JsonArray> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchAllPages(future);
-    return SingleHelper.toSingle(future::setHandler);
+    return timed("fetchAllPages", SingleHelper.toSingle(handler -> delegate.fetchAllPages(handler)));
   }
 
   public Single<JsonObject> rxFetchPage(String name) {
-    Future<JsonObject> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchPage(name, future.completer());
-    return SingleHelper.toSingle(future::setHandler);
+    return timed("fetchPage", SingleHelper.toSingle(handler -> delegate.fetchPage(name, handler)));
   }
 
   public Completable rxCreatePage(String title, String markdown) {
-    Future<Void> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.createPage(title, markdown, future.completer());
-    return CompletableHelper.toCompletable(future::setHandler);
+    return timed("createPage", WikiEvents.NO_PAGE, markdown, CompletableHelper.toCompletable(handler -> delegate.createPage(title, markdown, handler)));
   }
 
   public Completable rxSavePage(int id, String markdown) {
-    Future<Void> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.savePage(id, markdown, future.completer());
-    return CompletableHelper.toCompletable(future::setHandler);
+    return timed("savePage", id, markdown, CompletableHelper.toCompletable(handler -> delegate.savePage(id, markdown, handler)));
+  }
+
+  public Completable rxSavePageDeferred(int id, String markdown) {
+    return timed("savePageDeferred", id, markdown, CompletableHelper.toCompletable(handler -> delegate.savePageDeferred(id, markdown, handler)));
   }
 
   public Completable rxDeletePage(int id) {
-    Future<Void> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.deletePage(id, future.completer());
-    return CompletableHelper.toCompletable(future::setHandler);
+    return timed("deletePage", id, null, CompletableHelper.toCompletable(handler -> delegate.deletePage(id, handler)));
   }
 
   public Single<List<JsonObject>> rxFetchAllPagesData() {
-    Future<List<JsonObject>> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchAllPagesData(future.completer());
-    return SingleHelper.toSingle(future::setHandler);
+    return timed("fetchAllPagesData", SingleHelper.toSingle(handler -> delegate.fetchAllPagesData(handler)));
   }
 
   public Single<JsonObject> rxFetchPageById(int id) {
-    Future<JsonObject> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchPageById(id, future.completer());
-    return SingleHelper.toSingle(future::setHandler);
+    return timed("fetchPageById", id, null, SingleHelper.toSingle(handler -> delegate.fetchPageById(id, handler)));
+  }
+
+  public Single<JsonObject> rxFetchPageVersion(int id) {
+    return timed("fetchPageVersion", id, null, SingleHelper.toSingle(handler -> delegate.fetchPageVersion(id, handler)));
+  }
+
+  public Single<JsonObject> rxFetchPageFetchStats() {
+    return timed("fetchPageFetchStats", SingleHelper.toSingle(handler -> delegate.fetchPageFetchStats(handler)));
+  }
+
+  public Single<JsonArray> rxFetchPagesByIds(List<Integer> ids) {
+    return timed("fetchPagesByIds", SingleHelper.toSingle(handler -> delegate.fetchPagesByIds(ids, handler)));
+  }
+
+  public Single<JsonArray> rxFetchPageSummaries(int afterId, int limit) {
+    return timed("fetchPageSummaries", SingleHelper.toSingle(handler -> delegate.fetchPageSummaries(afterId, limit, handler)));
+  }
+
+  public Single<JsonObject> rxFetchChanges(long since, int limit) {
+    return timed("fetchChanges", SingleHelper.toSingle(handler -> delegate.fetchChanges(since, limit, handler)));
+  }
+
+  public Single<JsonArray> rxSearchPages(String query, int limit) {
+    return timed("searchPages", SingleHelper.toSingle(handler -> delegate.searchPages(query, limit, handler)));
+  }
+
+  public Single<JsonArray> rxCompletePageNames(String prefix, int limit) {
+    return timed("completePageNames", SingleHelper.toSingle(handler -> delegate.completePageNames(prefix, limit, handler)));
   }
 }
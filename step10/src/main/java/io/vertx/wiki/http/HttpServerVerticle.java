@@ -1,14 +1,22 @@
 package io.vertx.wiki.http;
 
-import com.github.rjeschke.txtmark.Processor;
+import io.prometheus.client.exporter.common.TextFormat;
+import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
 import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.bridge.PermittedOptions;
 import io.vertx.ext.web.handler.sockjs.BridgeOptions;
 import io.vertx.reactivex.core.AbstractVerticle;
+import io.vertx.reactivex.core.RxHelper;
 import io.vertx.reactivex.core.http.HttpServer;
+import io.vertx.reactivex.core.http.HttpServerResponse;
+import io.vertx.reactivex.core.shareddata.LocalMap;
+import io.vertx.reactivex.ext.web.Route;
 import io.vertx.reactivex.ext.web.Router;
 import io.vertx.reactivex.ext.web.RoutingContext;
 import io.vertx.reactivex.ext.web.handler.BodyHandler;
@@ -17,11 +25,25 @@ import io.vertx.reactivex.ext.web.handler.SessionHandler;
 import io.vertx.reactivex.ext.web.handler.StaticHandler;
 import io.vertx.reactivex.ext.web.handler.sockjs.SockJSHandler;
 import io.vertx.reactivex.ext.web.sstore.LocalSessionStore;
+import io.vertx.wiki.WikiMetrics;
+import io.vertx.wiki.database.PageRenderer;
 import io.vertx.wiki.database.reactivex.WikiDatabaseService;
+import io.vertx.wiki.jfr.WikiEvents;
+import io.vertx.wiki.jfr.WikiRecordings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.vertx.wiki.DatabaseConstants.WIKIDB_CHANGES_ADDRESS;
 
 // end::rx-imports[]
 
@@ -29,18 +51,63 @@ import java.util.Arrays;
 public class HttpServerVerticle extends AbstractVerticle {
   public static final Logger LOGGER = LoggerFactory.getLogger(HttpServerVerticle.class);
   public static final String CONFIG_HTTP_SERVER_PORT = "http.server.port";
+  public static final String CONFIG_HTTP_ADMIN_PORT = "http.admin.port";
+  public static final String CONFIG_HTTP_ADMIN_HOST = "http.admin.host";
   public static final String CONFIG_WIKIDB_QUEUE = "wikidb.queue";
+  public static final String CONFIG_WIKIDB_LOCAL_DELIVERY = "wikidb.local_delivery";
+  public static final String CONFIG_RENDER_CACHE_MAX_SIZE = "http.render_cache.max_size";
+  public static final String CONFIG_PREVIEW_CACHE_MAX_SIZE = "http.preview_cache.max_size";
+  public static final String CONFIG_PREVIEW_SESSIONS_MAX = "http.preview_sessions.max";
+  public static final String CONFIG_RENDER_POOL_SIZE = "http.render_pool.size";
+  public static final String CONFIG_RENDER_POOL_THRESHOLD = "http.render_pool.threshold";
+  public static final String CONFIG_RENDER_POOL_MAX_QUEUE_SIZE = "http.render_pool.max_queue_size";
+
+  private static final String DEFAULT_HTTP_ADMIN_HOST = "localhost";
+  private static final long DEFAULT_RENDER_CACHE_MAX_SIZE = 8 * 1024 * 1024;
+  private static final long DEFAULT_PREVIEW_CACHE_MAX_SIZE = 4 * 1024 * 1024;
+  private static final int DEFAULT_PREVIEW_SESSIONS_MAX = 1024;
+  private static final int DEFAULT_RENDER_POOL_SIZE = 4;
+  private static final int DEFAULT_RENDER_POOL_THRESHOLD = 16 * 1024;
+  private static final int DEFAULT_RENDER_POOL_MAX_QUEUE_SIZE = 64;
+  private static final int DEFAULT_PAGES_LIMIT = 100;
+  private static final int MAX_PAGES_LIMIT = 1000;
+  private static final int DEFAULT_SEARCH_LIMIT = 20;
+  private static final long MAX_CHANGES_WAIT = 60_000;
+  private static final long DEFAULT_RECORDING_MAX_AGE = 600;
+  private static final long CHANGES_KEEPALIVE_INTERVAL = 30_000;
 
   private WikiDatabaseService dbService;
+  private MarkdownCache markdownCache;
+  private PreviewCache previewCache;
+  private IncrementalPreview incrementalPreview;
+  private RenderExecutor renderExecutor;
+
+  /*
+   * Change notifications from the database service: long-poll requests and event streams register a listener, and
+   * the counter lets a long-poll request notice a change that happened while it was querying the change log.
+   */
+  private final Set<Runnable> changeListeners = new LinkedHashSet<>();
+  private long changeNotifications;
 
   @Override
   public void start(Future<Void> startFuture) throws Exception {
     String wikiDbQueue = config().getString(CONFIG_WIKIDB_QUEUE, "wikidb.queue");
-    dbService = io.vertx.wiki.database.WikiDatabaseService.createProxy(vertx.getDelegate(), wikiDbQueue);
+    boolean localDelivery = config().getBoolean(CONFIG_WIKIDB_LOCAL_DELIVERY, true);
+    dbService = io.vertx.wiki.database.WikiDatabaseService.createProxy(vertx.getDelegate(), wikiDbQueue, localDelivery);
+    long renderCacheMaxSize = config().getLong(CONFIG_RENDER_CACHE_MAX_SIZE, DEFAULT_RENDER_CACHE_MAX_SIZE);
+    long previewCacheMaxSize = config().getLong(CONFIG_PREVIEW_CACHE_MAX_SIZE, DEFAULT_PREVIEW_CACHE_MAX_SIZE);
+    markdownCache = SharedCache.shared(vertx, MarkdownCache.NAME, () -> new MarkdownCache(renderCacheMaxSize));
+    previewCache = SharedCache.shared(vertx, PreviewCache.NAME, () -> new PreviewCache(previewCacheMaxSize));
+    incrementalPreview = incrementalPreview(config().getInteger(CONFIG_PREVIEW_SESSIONS_MAX, DEFAULT_PREVIEW_SESSIONS_MAX));
+    renderExecutor = new RenderExecutor(vertx,
+      config().getInteger(CONFIG_RENDER_POOL_SIZE, DEFAULT_RENDER_POOL_SIZE),
+      config().getInteger(CONFIG_RENDER_POOL_THRESHOLD, DEFAULT_RENDER_POOL_THRESHOLD),
+      config().getInteger(CONFIG_RENDER_POOL_MAX_QUEUE_SIZE, DEFAULT_RENDER_POOL_MAX_QUEUE_SIZE));
 
     HttpServer server = vertx.createHttpServer();
     Router router = Router.router(vertx);
 
+    router.route().handler(this::timeRequest);
     router.route().handler(CookieHandler.create());
     router.route().handler(BodyHandler.create());
     router.route().handler(SessionHandler.create(LocalSessionStore.create(vertx)));
@@ -48,75 +115,488 @@ public class HttpServerVerticle extends AbstractVerticle {
     router.get("/app/*").handler(StaticHandler.create().setCachingEnabled(false));
     router.get("/").handler(context -> context.reroute("/app/index.html"));
 
-    router.post("/app/markdown").handler(context -> {
-      String html = Processor.process(context.getBodyAsString());
-      context.response()
+    router.post("/app/markdown").handler(context -> preview(context.getBodyAsString())
+      .subscribe(html -> context.response()
         .putHeader("Content-Type", "text/html")
         .setStatusCode(200)
-        .end(html);
-    });
+        .end(html), t -> context.response()
+        .setStatusCode(previewFailureCode(t))
+        .end()));
 
     SockJSHandler sockJSHandler = SockJSHandler.create(vertx);
     BridgeOptions bridgeOptions = new BridgeOptions()
       .addInboundPermitted(new PermittedOptions().setAddress("app.markdown"))
-      .addOutboundPermitted(new PermittedOptions().setAddress("page.saved"));
+      .addOutboundPermitted(new PermittedOptions().setAddressRegex("page\\.saved\\.[0-9]+"));
     sockJSHandler.bridge(bridgeOptions);
     router.route("/eventbus/*").handler(sockJSHandler);
 
-    vertx.eventBus().<String>consumer("app.markdown", msg -> {
-      String html = Processor.process(msg.body());
-      msg.reply(html);
+    vertx.eventBus().consumer("app.markdown", msg -> {
+      Single<?> reply;
+      if (msg.body() instanceof JsonObject) {
+        JsonObject request = (JsonObject) msg.body();
+        reply = renderExecutor.submit(IncrementalPreview.size(request), () -> incrementalPreview.apply(request));
+      } else {
+        reply = preview(String.valueOf(msg.body()));
+      }
+      reply.subscribe(msg::reply, t -> msg.fail(previewFailureCode(t), t.getMessage()));
+    });
+
+    SharedCache.listen(vertx);
+
+    vertx.eventBus().consumer(WIKIDB_CHANGES_ADDRESS, msg -> {
+      changeNotifications++;
+      new ArrayList<>(changeListeners).forEach(Runnable::run);
     });
 
     router.get("/api/pages").handler(this::apiRoot);
+    router.get("/api/pages/complete").handler(this::apiCompletePageNames);
     router.get("/api/pages/:id").handler(this::apiGetPage);
+    router.get("/api/search").handler(this::apiSearch);
+    router.get("/api/changes").handler(this::apiChanges);
     router.post().handler(BodyHandler.create());
     router.post("/api/pages").handler(this::apiCreatePage);
     router.put().handler(BodyHandler.create());
     router.put("/api/pages/:id").handler(this::apiUpdatePage);
     router.delete("/api/pages/:id").handler(this::apiDeletePage);
 
+    WikiMetrics.monitorEventLoop(vertx);
+
     int portNumber = config().getInteger(CONFIG_HTTP_SERVER_PORT, 8080);
+    Integer adminPort = config().getInteger(CONFIG_HTTP_ADMIN_PORT);
 
     server
       .requestHandler(router)
-      .listen(portNumber, ar -> {
-        if (ar.succeeded()) {
-          LOGGER.info("HTTP server running on port 8080");
-          startFuture.complete();
-        } else {
-          LOGGER.error("Could not start a HTTP server", ar.cause());
-          startFuture.fail(ar.cause());
-        }
+      .rxListen(portNumber)
+      .flatMap(listening -> adminPort == null ? Single.just(listening) : adminServer(adminPort))
+      .subscribe(listening -> {
+        LOGGER.info("HTTP server running on port 8080");
+        startFuture.complete();
+      }, t -> {
+        LOGGER.error("Could not start a HTTP server", t);
+        startFuture.fail(t);
       });
 
   }
 
+  /*
+   * Requests are timed per route pattern rather than per path, so that page ids do not make a series each. Requests
+   * that no route handled are reported under "unmatched".
+   */
+  private void timeRequest(RoutingContext context) {
+    long start = System.nanoTime();
+    Object event = WikiEvents.beginHttpRequest();
+    context.addBodyEndHandler(v -> {
+      Route route = context.currentRoute();
+      String path = route != null && route.getPath() != null ? route.getPath() : "unmatched";
+      WikiMetrics.timer("wiki.http.server.requests", "Latency of HTTP requests, per route",
+        "method", context.request().method().name(),
+        "route", path,
+        "status", String.valueOf(context.response().getStatusCode()))
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      if (event != null) {
+        WikiEvents.endHttpRequest(event, context.request().method().name(), path, context.response().getStatusCode(),
+          pageIdParam(context), context.getBody() != null ? context.getBody().length() : 0,
+          context.response().bytesWritten());
+      }
+    });
+    context.next();
+  }
+
+  private int pageIdParam(RoutingContext context) {
+    String id = context.pathParam("id");
+    try {
+      return id != null ? Integer.parseInt(id) : WikiEvents.NO_PAGE;
+    } catch (NumberFormatException e) {
+      return WikiEvents.NO_PAGE;
+    }
+  }
+
+  /*
+   * Administration routes expose the internals of the process: the cache, pool and fetch statistics, the metrics, and
+   * a flight recording, which holds the JVM command line, system properties and environment. They are only served when an admin port is configured, on a server of their
+   * own bound to the loopback interface unless configured otherwise.
+   */
+  private Single<HttpServer> adminServer(int port) {
+    String host = config().getString(CONFIG_HTTP_ADMIN_HOST, DEFAULT_HTTP_ADMIN_HOST);
+    Router router = Router.router(vertx);
+    router.post("/admin/recording").handler(this::startRecording);
+    router.get("/admin/recording").handler(this::dumpRecording);
+    router.delete("/admin/recording").handler(this::stopRecording);
+    router.get("/api/render-cache").handler(context -> apiResponse(context, 200, "stats", markdownCache.stats()));
+    router.get("/api/preview-cache").handler(context -> apiResponse(context, 200, "stats", previewCache.stats()));
+    router.get("/api/preview-sessions").handler(context -> apiResponse(context, 200, "stats", incrementalPreview.stats()));
+    router.get("/api/render-pool").handler(context -> apiResponse(context, 200, "stats", renderExecutor.stats()));
+    router.get("/api/page-fetches").handler(context -> dbService.rxFetchPageFetchStats()
+      .subscribe(stats -> apiResponse(context, 200, "stats", stats), t -> apiFailure(context, t)));
+    router.get("/metrics").handler(context -> context.response()
+      .putHeader("Content-Type", TextFormat.CONTENT_TYPE_004)
+      .end(WikiMetrics.registry().scrape()));
+    return vertx.createHttpServer()
+      .requestHandler(router)
+      .rxListen(port, host)
+      .doOnSuccess(listening -> LOGGER.info("Admin HTTP server running on " + host + ":" + port));
+  }
+
+  /*
+   * The flight recording is shared by the whole process: any server instance can start, dump or stop it.
+   */
+  private void startRecording(RoutingContext context) {
+    long maxAge = longParam(context, "maxAge", DEFAULT_RECORDING_MAX_AGE);
+    vertx.<JsonObject>rxExecuteBlocking(future -> {
+      try {
+        future.complete(WikiRecordings.start(Duration.ofSeconds(maxAge)));
+      } catch (Exception e) {
+        future.fail(e);
+      }
+    }, false)
+      .subscribe(status -> apiResponse(context, 200, "recording", status), t -> recordingFailure(context, t));
+  }
+
+  private void dumpRecording(RoutingContext context) {
+    vertx.<Path>rxExecuteBlocking(future -> {
+      try {
+        future.complete(WikiRecordings.dump());
+      } catch (Exception e) {
+        future.fail(e);
+      }
+    }, false)
+      .subscribe(file -> context.response()
+        .putHeader("Content-Type", "application/octet-stream")
+        .putHeader("Content-Disposition", "attachment; filename=\"wiki.jfr\"")
+        .sendFile(file.toString(), ar -> vertx.fileSystem().delete(file.toString(), deleted -> {
+          if (deleted.failed()) {
+            LOGGER.warn("Could not delete the recording dump " + file, deleted.cause());
+          }
+        })), t -> recordingFailure(context, t));
+  }
+
+  private void stopRecording(RoutingContext context) {
+    vertx.<JsonObject>rxExecuteBlocking(future -> future.complete(WikiRecordings.stop()), false)
+      .subscribe(status -> apiResponse(context, 200, "recording", status), t -> recordingFailure(context, t));
+  }
+
+  private void recordingFailure(RoutingContext context, Throwable t) {
+    if (t instanceof UnsupportedOperationException) {
+      apiFailure(context, 501, t.getMessage());
+    } else if (t instanceof IllegalStateException) {
+      apiFailure(context, 409, t.getMessage());
+    } else {
+      apiFailure(context, t);
+    }
+  }
+
+  private Single<String> preview(String markdown) {
+    return renderExecutor.submit(markdown.length(), () -> previewCache.render(markdown));
+  }
+
+  private int previewFailureCode(Throwable t) {
+    if (t instanceof IllegalStateException) {
+      return 409;
+    } else if (t instanceof IllegalArgumentException) {
+      return 400;
+    } else if (t instanceof RejectedExecutionException) {
+      return 503;
+    }
+    return 500;
+  }
+
+  /*
+   * Preview sessions are shared by all the verticle instances, since consecutive requests from one editor may be
+   * delivered to different consumers of the app.markdown address.
+   */
+  private IncrementalPreview incrementalPreview(int maxSessions) {
+    LocalMap<String, IncrementalPreview> map = vertx.sharedData().getLocalMap(IncrementalPreview.LOCAL_MAP);
+    IncrementalPreview created = new IncrementalPreview(maxSessions);
+    IncrementalPreview existing = map.putIfAbsent("sessions", created);
+    return existing != null ? existing : created;
+  }
+
   private void apiRoot(RoutingContext context) {
-    dbService.rxFetchAllPagesData()
+    if (context.request().getParam("ids") != null) {
+      apiGetPages(context);
+      return;
+    }
+    int after;
+    int limit;
+    try {
+      after = intParam(context, "after", -1);
+      limit = intParam(context, "limit", DEFAULT_PAGES_LIMIT);
+    } catch (NumberFormatException e) {
+      apiFailure(context, 400, "Invalid pagination parameters");
+      return;
+    }
+    if (limit < 1 || limit > MAX_PAGES_LIMIT) {
+      apiFailure(context, 400, "The limit must be between 1 and " + MAX_PAGES_LIMIT);
+      return;
+    }
+    dbService.rxFetchPageSummaries(after, limit)
+      .subscribe(pages -> {
+        context.response().setStatusCode(200);
+        context.response().putHeader("Content-Type", "application/json");
+        JsonObject wrapper = new JsonObject()
+          .put("success", true)
+          .put("pages", pages);
+        if (pages.size() == limit) {
+          wrapper.put("next", pages.getJsonObject(limit - 1).getInteger("id"));
+        }
+        context.response().end(wrapper.encode());
+      }, t -> apiFailure(context, t));
+  }
+
+  private void apiChanges(RoutingContext context) {
+    long since;
+    int limit;
+    long wait;
+    try {
+      String lastEventId = context.request().getHeader("Last-Event-ID");
+      since = lastEventId != null ? Long.parseLong(lastEventId) : longParam(context, "since", -1);
+      limit = intParam(context, "limit", DEFAULT_PAGES_LIMIT);
+      wait = longParam(context, "wait", 0);
+    } catch (NumberFormatException e) {
+      apiFailure(context, 400, "Invalid change feed parameters");
+      return;
+    }
+    if (limit < 1 || limit > MAX_PAGES_LIMIT) {
+      apiFailure(context, 400, "The limit must be between 1 and " + MAX_PAGES_LIMIT);
+      return;
+    }
+    if (wait < 0 || wait > MAX_CHANGES_WAIT) {
+      apiFailure(context, 400, "The wait time must be between 0 and " + MAX_CHANGES_WAIT + " milliseconds");
+      return;
+    }
+    String accept = context.request().getHeader("Accept");
+    if (accept != null && accept.contains("text/event-stream")) {
+      new ChangeStream(context.response(), since);
+      return;
+    }
+
+    long seen = changeNotifications;
+    Disposable request = dbService.rxFetchChanges(since, limit)
+      .flatMap(feed -> {
+        if (wait == 0 || since < 0 || !feed.getJsonArray("changes").isEmpty()) {
+          return Single.just(feed);
+        }
+        return nextChange(seen, wait).andThen(dbService.rxFetchChanges(since, limit));
+      })
+      .subscribe(feed -> {
+        context.response().setStatusCode(200);
+        context.response().putHeader("Content-Type", "application/json");
+        context.response().end(feed.put("success", true).encode());
+      }, t -> apiFailure(context, t));
+    context.response().closeHandler(v -> request.dispose());
+  }
+
+  /*
+   * Completes on the first change notification after the given count was observed, or when the timeout expires.
+   */
+  private Completable nextChange(long seen, long timeout) {
+    return Completable.defer(() -> {
+      if (changeNotifications != seen) {
+        return Completable.complete();
+      }
+      return Completable.create(emitter -> {
+        Runnable listener = emitter::onComplete;
+        changeListeners.add(listener);
+        emitter.setCancellable(() -> changeListeners.remove(listener));
+      }).timeout(timeout, TimeUnit.MILLISECONDS, RxHelper.scheduler(vertx), Completable.complete());
+    });
+  }
+
+  /*
+   * Writes change log entries to a Server-Sent Events response as they are recorded. Each event id is the change
+   * sequence number, so browsers resume where they left off by sending it back as Last-Event-ID.
+   */
+  private class ChangeStream {
+    private final HttpServerResponse response;
+    private final Runnable listener = this::fetch;
+    private final long keepAliveTimer;
+    private long last;
+    private boolean fetching;
+    private boolean pending;
+    private boolean closed;
+
+    ChangeStream(HttpServerResponse response, long since) {
+      this.response = response;
+      this.last = since;
+      response
+        .setChunked(true)
+        .putHeader("Content-Type", "text/event-stream")
+        .putHeader("Cache-Control", "no-cache")
+        .closeHandler(v -> close())
+        // Whatever filled the write queue, a fetch deferred by it resumes once the queue drains
+        .drainHandler(v -> resume());
+      response.write(": page changes\n\n");
+      changeListeners.add(listener);
+      keepAliveTimer = vertx.setPeriodic(CHANGES_KEEPALIVE_INTERVAL, id -> response.write(":\n\n"));
+      fetch();
+    }
+
+    private void fetch() {
+      if (fetching || response.writeQueueFull()) {
+        pending = true;
+        return;
+      }
+      fetching = true;
+      dbService.rxFetchChanges(last, MAX_PAGES_LIMIT).subscribe(feed -> {
+        fetching = false;
+        if (closed) {
+          return;
+        }
+        JsonArray changes = feed.getJsonArray("changes");
+        if (last < 0) {
+          response.write("id: " + feed.getLong("last") + "\n\n");
+        }
+        for (int i = 0; i < changes.size(); i++) {
+          JsonObject change = changes.getJsonObject(i);
+          response.write("id: " + change.getLong("seq") + "\nevent: change\ndata: " + change.encode() + "\n\n");
+        }
+        last = feed.getLong("last");
+        if (changes.size() == MAX_PAGES_LIMIT) {
+          pending = true;
+        }
+        if (!response.writeQueueFull()) {
+          resume();
+        }
+      }, t -> {
+        LOGGER.error("Could not stream page changes", t);
+        close();
+        if (!response.closed()) {
+          response.end();
+        }
+      });
+    }
+
+    private void resume() {
+      if (pending && !closed) {
+        pending = false;
+        fetch();
+      }
+    }
+
+    private void close() {
+      closed = true;
+      changeListeners.remove(listener);
+      vertx.cancelTimer(keepAliveTimer);
+    }
+  }
+
+  private void apiCompletePageNames(RoutingContext context) {
+    String prefix = context.request().getParam("prefix");
+    int limit;
+    try {
+      limit = intParam(context, "limit", DEFAULT_SEARCH_LIMIT);
+    } catch (NumberFormatException e) {
+      apiFailure(context, 400, "Invalid limit");
+      return;
+    }
+    if (prefix == null || limit < 1 || limit > MAX_PAGES_LIMIT) {
+      apiFailure(context, 400, "A prefix and a limit between 1 and " + MAX_PAGES_LIMIT + " are required");
+      return;
+    }
+    dbService.rxCompletePageNames(prefix, limit)
+      .subscribe(names -> apiResponse(context, 200, "names", names), t -> apiFailure(context, t));
+  }
+
+  private void apiSearch(RoutingContext context) {
+    String query = context.request().getParam("q");
+    int limit;
+    try {
+      limit = intParam(context, "limit", DEFAULT_SEARCH_LIMIT);
+    } catch (NumberFormatException e) {
+      apiFailure(context, 400, "Invalid limit");
+      return;
+    }
+    if (query == null || limit < 1 || limit > MAX_PAGES_LIMIT) {
+      apiFailure(context, 400, "A query (q) and a limit between 1 and " + MAX_PAGES_LIMIT + " are required");
+      return;
+    }
+    dbService.rxSearchPages(query, limit)
+      .subscribe(results -> apiResponse(context, 200, "results", results), t -> apiFailure(context, t));
+  }
+
+  private void apiGetPages(RoutingContext context) {
+    List<Integer> ids = new ArrayList<>();
+    try {
+      for (String id : context.request().getParam("ids").split(",")) {
+        if (!id.trim().isEmpty()) {
+          ids.add(Integer.valueOf(id.trim()));
+        }
+      }
+    } catch (NumberFormatException e) {
+      apiFailure(context, 400, "Invalid page ids");
+      return;
+    }
+    if (ids.size() > MAX_PAGES_LIMIT) {
+      apiFailure(context, 400, "At most " + MAX_PAGES_LIMIT + " pages can be fetched at once");
+      return;
+    }
+    dbService.rxFetchPagesByIds(ids)
       .flatMapPublisher(Flowable::fromIterable)
-      .map(obj -> new JsonObject()
-        .put("id", obj.getInteger("ID"))
-        .put("name", obj.getString("NAME")))
+      .cast(JsonObject.class)
+      .concatMapSingle(dbObject -> html(dbObject).map(html -> new JsonObject()
+        .put("name", dbObject.getString("name"))
+        .put("id", dbObject.getInteger("id"))
+        .put("markdown", dbObject.getString("content"))
+        .put("html", html)))
       .collect(JsonArray::new, JsonArray::add)
       .subscribe(pages -> apiResponse(context, 200, "pages", pages), t -> apiFailure(context, t));
   }
 
   private void apiGetPage(RoutingContext context) {
     int id = Integer.valueOf(context.request().getParam("id"));
+    if (!ConditionalRequests.isConditional(context.request())) {
+      apiGetPageContent(context, id);
+      return;
+    }
+    dbService.rxFetchPageVersion(id)
+      .subscribe(version -> {
+        if (version.getBoolean("found") && ConditionalRequests.notModified(context.request(), etag(version), version.getLong("updated", 0L))) {
+          ConditionalRequests.putValidators(context.response(), etag(version), version.getLong("updated", 0L));
+          context.response().setStatusCode(304).end();
+        } else {
+          apiGetPageContent(context, id);
+        }
+      }, t -> apiFailure(context, t));
+  }
+
+  private void apiGetPageContent(RoutingContext context, int id) {
     dbService.rxFetchPageById(id)
-      .subscribe(dbObject -> {
+      .flatMapMaybe(dbObject -> {
         if (dbObject.getBoolean("found")) {
-          JsonObject payload = new JsonObject()
+          return html(dbObject).map(html -> new JsonObject()
             .put("name", dbObject.getString("name"))
             .put("id", dbObject.getInteger("id"))
             .put("markdown", dbObject.getString("content"))
-            .put("html", Processor.process(dbObject.getString("content")));
-          apiResponse(context, 200, "page", payload);
+            .put("html", html))
+            .doOnSuccess(payload -> ConditionalRequests.putValidators(context.response(), etag(dbObject), dbObject.getLong("updated", 0L)))
+            .toMaybe();
         } else {
-          apiFailure(context, 404, "There is no page with ID " + id);
+          return Maybe.empty();
         }
-      }, t -> apiFailure(context, t));
+      })
+      .subscribe(payload -> apiResponse(context, 200, "page", payload),
+        t -> apiFailure(context, t),
+        () -> apiFailure(context, 404, "There is no page with ID " + id));
+  }
+
+  /*
+   * Strong validator for the page JSON: it changes with every save and with the renderer version of the HTML, and is
+   * missing while a save is still queued.
+   */
+  private static String etag(JsonObject page) {
+    if (!page.containsKey("revision")) {
+      return null;
+    }
+    return "\"" + page.getInteger("id") + "-" + page.getInteger("revision") + "-r" + PageRenderer.VERSION + "\"";
+  }
+
+  private Single<String> html(JsonObject dbObject) {
+    String html = dbObject.getString("html");
+    if (html != null) {
+      return Single.just(html);
+    }
+    String markdown = dbObject.getString("content");
+    return renderExecutor.submit(markdown.length(), () -> markdownCache.render(dbObject.getInteger("id"), markdown));
   }
 
   private void apiCreatePage(RoutingContext context) {
@@ -134,12 +614,17 @@ public class HttpServerVerticle extends AbstractVerticle {
     if (!validateJsonPageDocument(context, page, "markdown")) {
       return;
     }
-    dbService.rxSavePage(id, page.getString("markdown"))
+    Completable save = page.getBoolean("durable", true)
+      ? dbService.rxSavePage(id, page.getString("markdown"))
+      : dbService.rxSavePageDeferred(id, page.getString("markdown"));
+    save
       .doOnComplete(() -> {
         JsonObject event = new JsonObject()
           .put("id", id)
           .put("client", page.getString("client"));
-        vertx.eventBus().publish("page.saved", event);
+        SharedCache.publishInvalidation(vertx, MarkdownCache.NAME, id);
+        // Browsers only subscribe to the page they are viewing
+        vertx.eventBus().publish("page.saved." + id, event);
       })
       .subscribe(() -> apiResponse(context, 200, null, null),
         t -> apiFailure(context, t));
@@ -148,9 +633,20 @@ public class HttpServerVerticle extends AbstractVerticle {
   private void apiDeletePage(RoutingContext context) {
     int id = Integer.valueOf(context.request().getParam("id"));
     dbService.rxDeletePage(id)
+      .doOnComplete(() -> SharedCache.publishInvalidation(vertx, MarkdownCache.NAME, id))
       .subscribe(() -> apiResponse(context, 200, null, null), t -> apiFailure(context, t));
   }
 
+  private int intParam(RoutingContext context, String name, int defaultValue) {
+    String value = context.request().getParam(name);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  private long longParam(RoutingContext context, String name, long defaultValue) {
+    String value = context.request().getParam(name);
+    return value == null ? defaultValue : Long.parseLong(value);
+  }
+
   private boolean validateJsonPageDocument(RoutingContext context, JsonObject page, String... expectedKeys) {
     if (!Arrays.stream(expectedKeys).allMatch(page::containsKey)) {
       LOGGER.error("Bad page creation JSON payload: " + page.encodePrettily() + " from " + context.request().remoteAddress());
@@ -175,6 +671,10 @@ public class HttpServerVerticle extends AbstractVerticle {
   }
 
   private void apiFailure(RoutingContext context, Throwable t) {
+    if (t instanceof RejectedExecutionException) {
+      apiFailure(context, 503, t.getMessage());
+      return;
+    }
     LOGGER.error("api failure", t);
     apiFailure(context, 500, t.getMessage());
   }
@@ -0,0 +1,142 @@
+package io.vertx.wiki.http;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.wiki.jfr.WikiEvents;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Block-level incremental markdown preview sessions.
+ * <p>
+ * Clients split the editor buffer into blocks at the blank lines that no list item, indented line or quote continues,
+ * so that each block renders as it would within the whole document, and send the change since their last request as a
+ * splice: {@code {"session", "base", "start", "deleteCount", "blocks"}}, where {@code base} is the revision the splice
+ * applies to and is omitted to (re)start a session. Only the inserted blocks are rendered, and the reply is the
+ * matching HTML splice: {@code {"revision", "start", "deleteCount", "html"}}. A splice against another revision than
+ * the session's fails with an {@link IllegalStateException}, after which the client restarts the session.
+ * <p>
+ * Blocks are rendered independently, so clients render documents with link reference definitions in full. Sessions are kept in LRU order, up to a maximum count, and are shared by
+ * all the HTTP verticle instances through a local map.
+ */
+public class IncrementalPreview implements Shareable {
+
+  public static final String LOCAL_MAP = "app.markdown.sessions";
+
+  private final int maxSessions;
+  private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final AtomicLong renderedBlocks = new AtomicLong();
+  private final AtomicLong reusedBlocks = new AtomicLong();
+  private final AtomicLong resyncs = new AtomicLong();
+
+  public IncrementalPreview(int maxSessions) {
+    this.maxSessions = maxSessions;
+  }
+
+  public JsonObject apply(JsonObject request) {
+    String id = request.getString("session");
+    JsonArray blocks = request.getJsonArray("blocks");
+    if (id == null || blocks == null) {
+      throw new IllegalArgumentException("A preview request needs a session and blocks");
+    }
+    Integer base = request.getInteger("base");
+    int start = request.getInteger("start", 0);
+    int deleteCount = request.getInteger("deleteCount", 0);
+
+    Session session = session(id, base == null);
+    synchronized (session) {
+      if (base != null && base != session.revision) {
+        resyncs.incrementAndGet();
+        throw new IllegalStateException("Preview session " + id + " is at revision " + session.revision);
+      }
+      if (start < 0 || deleteCount < 0 || start + deleteCount > session.markdown.size()) {
+        throw new IllegalArgumentException("Invalid preview splice");
+      }
+
+      Map<String, String> deleted = new HashMap<>();
+      for (int i = start; i < start + deleteCount; i++) {
+        deleted.put(session.markdown.get(i), session.html.get(i));
+      }
+      List<String> addedMarkdown = new ArrayList<>(blocks.size());
+      List<String> addedHtml = new ArrayList<>(blocks.size());
+      for (int i = 0; i < blocks.size(); i++) {
+        String markdown = blocks.getString(i);
+        String html = deleted.get(markdown);
+        if (html != null) {
+          reusedBlocks.incrementAndGet();
+        } else {
+          renderedBlocks.incrementAndGet();
+          Object event = WikiEvents.beginMarkdownRender();
+          html = Processor.process(markdown);
+          WikiEvents.endMarkdownRender(event, "preview-block", WikiEvents.NO_PAGE, markdown, html);
+        }
+        addedMarkdown.add(markdown);
+        addedHtml.add(html);
+      }
+
+      splice(session.markdown, start, deleteCount, addedMarkdown);
+      splice(session.html, start, deleteCount, addedHtml);
+      session.revision++;
+      return new JsonObject()
+        .put("revision", session.revision)
+        .put("start", start)
+        .put("deleteCount", deleteCount)
+        .put("html", new JsonArray(addedHtml));
+    }
+  }
+
+  /**
+   * The number of markdown characters a request may have to render.
+   */
+  public static int size(JsonObject request) {
+    int size = 0;
+    for (Object block : request.getJsonArray("blocks", new JsonArray())) {
+      size += String.valueOf(block).length();
+    }
+    return size;
+  }
+
+  public synchronized JsonObject stats() {
+    return new JsonObject()
+      .put("sessions", sessions.size())
+      .put("maxSessions", maxSessions)
+      .put("renderedBlocks", renderedBlocks.get())
+      .put("reusedBlocks", reusedBlocks.get())
+      .put("resyncs", resyncs.get());
+  }
+
+  private synchronized Session session(String id, boolean reset) {
+    Session session = sessions.get(id);
+    if (session == null && !reset) {
+      resyncs.incrementAndGet();
+      throw new IllegalStateException("Unknown preview session " + id);
+    }
+    if (reset) {
+      session = new Session();
+      sessions.put(id, session);
+      if (sessions.size() > maxSessions) {
+        sessions.remove(sessions.keySet().iterator().next());
+      }
+    }
+    return session;
+  }
+
+  private static void splice(List<String> list, int start, int deleteCount, List<String> items) {
+    list.subList(start, start + deleteCount).clear();
+    list.addAll(start, items);
+  }
+
+  private static final class Session {
+    final List<String> markdown = new ArrayList<>();
+    final List<String> html = new ArrayList<>();
+    int revision;
+  }
+}
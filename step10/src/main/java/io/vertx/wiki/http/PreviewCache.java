@@ -0,0 +1,63 @@
+package io.vertx.wiki.http;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.wiki.jfr.WikiEvents;
+
+/**
+ * Bounded LRU cache of live preview renderings, keyed by a 64-bit hash of the markdown.
+ * <p>
+ * Editors resend text that was already rendered on undo, redo or when toggling between tabs. Entries keep the
+ * markdown they were rendered from, so a hash collision is a miss rather than a wrong preview. The size bound is
+ * expressed in characters of cached markdown and HTML.
+ */
+public class PreviewCache extends SharedCache<Long, PreviewCache.Entry> {
+
+  public static final String NAME = "preview";
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  public PreviewCache(long maxSize) {
+    super(NAME, maxSize, Entry::size);
+  }
+
+  public String render(String markdown) {
+    long hash = hash(markdown);
+    Entry entry = get(hash, cached -> cached.markdown.equals(markdown));
+    if (entry != null) {
+      return entry.html;
+    }
+    Object event = WikiEvents.beginMarkdownRender();
+    String html = Processor.process(markdown);
+    WikiEvents.endMarkdownRender(event, "preview", WikiEvents.NO_PAGE, markdown, html);
+    put(hash, new Entry(markdown, html));
+    return html;
+  }
+
+  /*
+   * FNV-1a over the UTF-16 code units: much cheaper than rendering, and unlike String#hashCode wide enough that
+   * collisions between recently previewed documents are not a practical concern.
+   */
+  static long hash(String markdown) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < markdown.length(); i++) {
+      hash ^= markdown.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  static final class Entry {
+    final String markdown;
+    final String html;
+
+    Entry(String markdown, String html) {
+      this.markdown = markdown;
+      this.html = html;
+    }
+
+    long size() {
+      return markdown.length() + html.length();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package io.vertx.wiki.http;
+
+import io.reactivex.Single;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.WorkerExecutor;
+import io.vertx.reactivex.core.shareddata.LocalMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs markdown rendering on a dedicated worker pool, so that large documents do not stall the event loop.
+ * <p>
+ * Documents shorter than the threshold are rendered inline, since a thread hop would cost more than the rendering.
+ * Offloaded tasks are bounded: once {@code maxQueueSize} of them are running or waiting, new ones are rejected with a
+ * {@link RejectedExecutionException} instead of piling up.
+ * <p>
+ * All the verticle instances of a Vert.x instance render on the same named pool, so the bound and the statistics
+ * are kept next to it, in a local map, rather than per verticle instance.
+ */
+public class RenderExecutor {
+
+  private static final String POOL_NAME = "wiki-markdown-renderer";
+  private static final String LOCAL_MAP = "app.render-pools";
+
+  private final WorkerExecutor executor;
+  private final int threshold;
+  private final int maxQueueSize;
+  private final Counters counters;
+
+  public RenderExecutor(Vertx vertx, int poolSize, int threshold, int maxQueueSize) {
+    this.executor = vertx.createSharedWorkerExecutor(POOL_NAME, poolSize);
+    this.threshold = threshold;
+    this.maxQueueSize = maxQueueSize;
+    LocalMap<String, Counters> pools = vertx.sharedData().getLocalMap(LOCAL_MAP);
+    Counters created = new Counters();
+    Counters existing = pools.putIfAbsent(POOL_NAME, created);
+    this.counters = existing != null ? existing : created;
+  }
+
+  /**
+   * Runs a rendering task whose cost is proportional to {@code size} characters of markdown.
+   */
+  public <T> Single<T> submit(int size, Callable<T> task) {
+    if (size < threshold) {
+      counters.inline.incrementAndGet();
+      return Single.fromCallable(task);
+    }
+    return Single.defer(() -> {
+      if (counters.queued.incrementAndGet() > maxQueueSize) {
+        counters.queued.decrementAndGet();
+        counters.rejected.incrementAndGet();
+        return Single.error(new RejectedExecutionException("Too many pending markdown renderings"));
+      }
+      counters.offloaded.incrementAndGet();
+      return executor.<T>rxExecuteBlocking(future -> {
+        try {
+          future.complete(task.call());
+        } catch (Exception e) {
+          future.fail(e);
+        }
+      }, false)
+        .toSingle()
+        .doFinally(counters.queued::decrementAndGet);
+    });
+  }
+
+  public JsonObject stats() {
+    return new JsonObject()
+      .put("threshold", threshold)
+      .put("maxQueueSize", maxQueueSize)
+      .put("queued", counters.queued.get())
+      .put("inline", counters.inline.get())
+      .put("offloaded", counters.offloaded.get())
+      .put("rejected", counters.rejected.get());
+  }
+
+  private static final class Counters implements Shareable {
+    final AtomicInteger queued = new AtomicInteger();
+    final AtomicLong inline = new AtomicLong();
+    final AtomicLong offloaded = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+
+    @Override
+    public Shareable copy() {
+      return this;
+    }
+  }
+}
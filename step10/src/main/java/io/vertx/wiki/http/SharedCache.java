@@ -0,0 +1,248 @@
+package io.vertx.wiki.http;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.shareddata.LocalMap;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded LRU cache shared by all the verticle instances of a Vert.x instance through a local map, so that scaling
+ * the HTTP verticle out to more instances neither duplicates entries nor splits the hits between private copies.
+ * <p>
+ * The size bound is expressed in the unit of the cache weigher. Entries are invalidated through messages published
+ * on {@link #INVALIDATION_ADDRESS}: {@code {"cache", "key"}} drops one entry and {@code {"cache"}} clears a cache.
+ * Publishing reaches every Vert.x instance of a cluster, and removing an entry is idempotent, so each verticle
+ * instance listens on its own and a node only needs to have one instance deployed to stay consistent. Keys sent on
+ * the channel must be JSON scalars that decode back to the key type, i.e. strings or integers.
+ * <p>
+ * A value read from the database while an invalidation is in flight must not be cached over it: callers take a
+ * {@link #version()} before reading and {@link #put(Object, Object, long)} ignores values older than the last
+ * invalidation.
+ * <p>
+ * Reads take no lock, so that hits on all the event loops do not contend: a hit only stamps its entry with the
+ * current write clock. Writes are serialized, and evict by approximate LRU: the least recently used of
+ * eight entries picked at random, or of all the entries when there are no more.
+ */
+public class SharedCache<K, V> implements Shareable {
+
+  public static final String INVALIDATION_ADDRESS = "app.cache.invalidate";
+
+  private static final String LOCAL_MAP = "app.caches";
+  private static final int EVICTION_SAMPLES = 8;
+
+  private final String name;
+  private final long maxSize;
+  private final ToLongFunction<? super V> weigher;
+  private final ConcurrentHashMap<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+  private final AtomicLong clock = new AtomicLong();
+
+  // Guarded by this: the entries again, indexed so that eviction can sample them uniformly
+  private final ArrayList<Node<K, V>> nodes = new ArrayList<>();
+  private volatile long size;
+  private volatile long version;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public SharedCache(String name, long maxSize, ToLongFunction<? super V> weigher) {
+    this.name = name;
+    this.maxSize = maxSize;
+    this.weigher = weigher;
+  }
+
+  /**
+   * @return the cache registered under the name of the one built by {@code factory}, registering it when this is
+   * the first verticle instance to ask for it
+   */
+  @SuppressWarnings("unchecked")
+  public static <C extends SharedCache<?, ?>> C shared(Vertx vertx, String name, Supplier<C> factory) {
+    LocalMap<String, SharedCache<?, ?>> caches = vertx.sharedData().getLocalMap(LOCAL_MAP);
+    SharedCache<?, ?> existing = caches.get(name);
+    if (existing == null) {
+      C created = factory.get();
+      existing = caches.putIfAbsent(name, created);
+      if (existing == null) {
+        return created;
+      }
+    }
+    return (C) existing;
+  }
+
+  /**
+   * Applies the invalidation messages to the caches of this Vert.x instance for as long as the calling verticle is
+   * deployed.
+   */
+  public static void listen(Vertx vertx) {
+    LocalMap<String, SharedCache<?, ?>> caches = vertx.sharedData().getLocalMap(LOCAL_MAP);
+    vertx.eventBus().<JsonObject>consumer(INVALIDATION_ADDRESS, message -> {
+      JsonObject body = message.body();
+      SharedCache<?, ?> cache = caches.get(body.getString("cache"));
+      if (cache == null) {
+        return;
+      }
+      if (body.containsKey("key")) {
+        cache.invalidateKey(body.getValue("key"));
+      } else {
+        cache.clear();
+      }
+    });
+  }
+
+  public static void publishInvalidation(Vertx vertx, String cache, Object key) {
+    vertx.eventBus().publish(INVALIDATION_ADDRESS, new JsonObject().put("cache", cache).put("key", key));
+  }
+
+  public V get(K key) {
+    return get(key, value -> true);
+  }
+
+  /**
+   * @return the cached value if it passes {@code fresh}, a value failing it being counted as a miss
+   */
+  public V get(K key, Predicate<? super V> fresh) {
+    Node<K, V> node = entries.get(key);
+    if (node != null && fresh.test(node.value)) {
+      node.touch(clock.get());
+      hits.increment();
+      return node.value;
+    }
+    misses.increment();
+    return null;
+  }
+
+  public long version() {
+    return version;
+  }
+
+  public void put(K key, V value) {
+    put(key, value, version);
+  }
+
+  /**
+   * Caches a value read at {@code readVersion}, unless an invalidation was applied since.
+   */
+  public synchronized void put(K key, V value, long readVersion) {
+    long weight = weigher.applyAsLong(value);
+    if (readVersion != version || weight > maxSize) {
+      return;
+    }
+    Node<K, V> node = new Node<>(key, value, weight, clock.incrementAndGet());
+    Node<K, V> previous = entries.put(key, node);
+    if (previous != null) {
+      node.index = previous.index;
+      nodes.set(node.index, node);
+      size -= previous.weight;
+    } else {
+      node.index = nodes.size();
+      nodes.add(node);
+    }
+    size += weight;
+    while (size > maxSize) {
+      Node<K, V> eldest = eldest(node);
+      if (eldest != null) {
+        remove(eldest);
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  public synchronized void invalidate(K key) {
+    version++;
+    Node<K, V> removed = entries.get(key);
+    if (removed != null) {
+      remove(removed);
+      invalidations.incrementAndGet();
+    }
+  }
+
+  public synchronized void clear() {
+    version++;
+    invalidations.addAndGet(nodes.size());
+    entries.clear();
+    nodes.clear();
+    size = 0;
+  }
+
+  public JsonObject stats() {
+    return new JsonObject()
+      .put("name", name)
+      .put("entries", entries.size())
+      .put("size", size)
+      .put("maxSize", maxSize)
+      .put("hits", hits.sum())
+      .put("misses", misses.sum())
+      .put("evictions", evictions.get())
+      .put("invalidations", invalidations.get());
+  }
+
+  @Override
+  public Shareable copy() {
+    return this;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void invalidateKey(Object key) {
+    invalidate((K) key);
+  }
+
+  /*
+   * The least recently used of the sampled entries, other than the one being put.
+   */
+  private Node<K, V> eldest(Node<K, V> keep) {
+    int count = nodes.size();
+    boolean sampled = count > EVICTION_SAMPLES;
+    Node<K, V> eldest = null;
+    for (int i = 0; i < Math.min(count, EVICTION_SAMPLES); i++) {
+      Node<K, V> candidate = nodes.get(sampled ? ThreadLocalRandom.current().nextInt(count) : i);
+      if (candidate != keep && (eldest == null || candidate.lastAccess < eldest.lastAccess)) {
+        eldest = candidate;
+      }
+    }
+    return eldest;
+  }
+
+  private void remove(Node<K, V> node) {
+    entries.remove(node.key, node);
+    Node<K, V> last = nodes.remove(nodes.size() - 1);
+    if (last != node) {
+      nodes.set(node.index, last);
+      last.index = node.index;
+    }
+    size -= node.weight;
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    final long weight;
+    volatile long lastAccess;
+    int index;
+
+    Node(K key, V value, long weight, long lastAccess) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+      this.lastAccess = lastAccess;
+    }
+
+    /*
+     * Hits within the same write clock tick leave the entry untouched, sparing the cache line a write.
+     */
+    void touch(long now) {
+      if (lastAccess != now) {
+        lastAccess = now;
+      }
+    }
+  }
+}
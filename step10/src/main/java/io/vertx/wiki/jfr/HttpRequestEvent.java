@@ -0,0 +1,48 @@
+package io.vertx.wiki.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.vertx.wiki.HttpRequest")
+@Label("HTTP Request")
+@Category({"Wiki", "HTTP"})
+@Description("An HTTP request, from its routing to the end of its response")
+@StackTrace(false)
+class HttpRequestEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Route")
+  @Description("The pattern of the route that handled the request")
+  String route;
+
+  @Label("Status")
+  int status;
+
+  @Label("Page Id")
+  @Description("The page the request is about, or -1")
+  int pageId;
+
+  @Label("Request Size")
+  @DataAmount
+  long requestSize;
+
+  @Label("Response Size")
+  @DataAmount
+  long responseSize;
+
+  static HttpRequestEvent start() {
+    HttpRequestEvent event = new HttpRequestEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
@@ -0,0 +1,39 @@
+package io.vertx.wiki.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.vertx.wiki.MarkdownRender")
+@Label("Markdown Render")
+@Category({"Wiki", "Rendering"})
+@Description("A rendering of markdown to HTML")
+@StackTrace(false)
+class MarkdownRenderEvent extends Event {
+
+  @Label("Source")
+  @Description("stored for the HTML stored with pages, page for the HTTP render cache, preview or preview-block")
+  String source;
+
+  @Label("Page Id")
+  @Description("The page rendered, or -1")
+  int pageId;
+
+  @Label("Markdown Length")
+  int markdownLength;
+
+  @Label("HTML Length")
+  int htmlLength;
+
+  static MarkdownRenderEvent start() {
+    MarkdownRenderEvent event = new MarkdownRenderEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
@@ -0,0 +1,43 @@
+package io.vertx.wiki.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.vertx.wiki.ServiceCall")
+@Label("Database Service Call")
+@Category({"Wiki", "Database"})
+@Description("A call to the database service, from the caller side, including the event bus round trip if any")
+@StackTrace(false)
+class ServiceCallEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Delivery")
+  @Description("eventbus or local")
+  String delivery;
+
+  @Label("Page Id")
+  @Description("The page the call is about, or -1")
+  int pageId;
+
+  @Label("Markdown Length")
+  @Description("The characters of markdown sent, for page creations and saves")
+  int markdownLength;
+
+  @Label("Succeeded")
+  boolean succeeded;
+
+  static ServiceCallEvent start() {
+    ServiceCallEvent event = new ServiceCallEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
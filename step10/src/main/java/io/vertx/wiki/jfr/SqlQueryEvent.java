@@ -0,0 +1,35 @@
+package io.vertx.wiki.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.vertx.wiki.SqlQuery")
+@Label("SQL Query")
+@Category({"Wiki", "Database"})
+@Description("A SQL statement run by the database service, from its submission to the JDBC client to its result")
+@StackTrace(false)
+class SqlQueryEvent extends Event {
+
+  @Label("Query")
+  String query;
+
+  @Label("Rows")
+  @Description("The rows returned or changed")
+  int rows;
+
+  @Label("Succeeded")
+  boolean succeeded;
+
+  static SqlQueryEvent start() {
+    SqlQueryEvent event = new SqlQueryEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
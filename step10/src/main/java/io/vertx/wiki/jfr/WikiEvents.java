@@ -0,0 +1,93 @@
+package io.vertx.wiki.jfr;
+
+/**
+ * Java Flight Recorder events of the wiki, under the {@code Wiki} category of a recording.
+ * <p>
+ * Each {@code beginX} method returns an opaque event to pass to the matching {@code endX} method, or {@code null}
+ * when no recording enables the event, so that the wiki pays a field check per operation outside of recordings.
+ * <p>
+ * The {@code jdk.jfr} API comes with JDK 8u262 and 11. On older runtimes, no event class is ever loaded and all the
+ * methods do nothing.
+ */
+public final class WikiEvents {
+
+  static final boolean AVAILABLE = available();
+
+  public static final int NO_PAGE = -1;
+
+  private WikiEvents() {
+  }
+
+  private static boolean available() {
+    try {
+      Class.forName("jdk.jfr.FlightRecorder");
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  public static Object beginHttpRequest() {
+    return AVAILABLE ? HttpRequestEvent.start() : null;
+  }
+
+  public static void endHttpRequest(Object token, String method, String route, int status, int pageId,
+                                    long requestSize, long responseSize) {
+    if (token != null) {
+      HttpRequestEvent event = (HttpRequestEvent) token;
+      event.method = method;
+      event.route = route;
+      event.status = status;
+      event.pageId = pageId;
+      event.requestSize = requestSize;
+      event.responseSize = responseSize;
+      event.commit();
+    }
+  }
+
+  public static Object beginServiceCall() {
+    return AVAILABLE ? ServiceCallEvent.start() : null;
+  }
+
+  public static void endServiceCall(Object token, String method, String delivery, int pageId, int markdownLength,
+                                    boolean succeeded) {
+    if (token != null) {
+      ServiceCallEvent event = (ServiceCallEvent) token;
+      event.method = method;
+      event.delivery = delivery;
+      event.pageId = pageId;
+      event.markdownLength = markdownLength;
+      event.succeeded = succeeded;
+      event.commit();
+    }
+  }
+
+  public static Object beginSqlQuery() {
+    return AVAILABLE ? SqlQueryEvent.start() : null;
+  }
+
+  public static void endSqlQuery(Object token, String query, int rows, boolean succeeded) {
+    if (token != null) {
+      SqlQueryEvent event = (SqlQueryEvent) token;
+      event.query = query;
+      event.rows = rows;
+      event.succeeded = succeeded;
+      event.commit();
+    }
+  }
+
+  public static Object beginMarkdownRender() {
+    return AVAILABLE ? MarkdownRenderEvent.start() : null;
+  }
+
+  public static void endMarkdownRender(Object token, String source, int pageId, String markdown, String html) {
+    if (token != null) {
+      MarkdownRenderEvent event = (MarkdownRenderEvent) token;
+      event.source = source;
+      event.pageId = pageId;
+      event.markdownLength = markdown.length();
+      event.htmlLength = html.length();
+      event.commit();
+    }
+  }
+}
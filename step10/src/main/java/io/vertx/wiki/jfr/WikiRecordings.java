@@ -0,0 +1,101 @@
+package io.vertx.wiki.jfr;
+
+import io.vertx.core.json.JsonObject;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * The flight recording of the wiki process, with the JDK {@code default} settings plus the wiki events. There is at
+ * most one, shared by all the verticles of the process.
+ * <p>
+ * The methods block on the recorder and the file system, and must run on worker threads. They throw
+ * {@link UnsupportedOperationException} when the runtime has no flight recorder and {@link IllegalStateException}
+ * when no recording is running for a dump.
+ */
+public final class WikiRecordings {
+
+  private static final String NAME = "wiki";
+
+  private static Recording recording;
+
+  private WikiRecordings() {
+  }
+
+  /**
+   * Starts the recording, keeping the events of the last {@code maxAge}, unless it is already running.
+   */
+  public static synchronized JsonObject start(Duration maxAge) throws IOException, ParseException {
+    checkAvailable();
+    if (!running()) {
+      recording = new Recording(Configuration.getConfiguration("default"));
+      recording.setName(NAME);
+      recording.setToDisk(true);
+      recording.setMaxAge(maxAge);
+      recording.start();
+    }
+    return status();
+  }
+
+  /**
+   * Dumps the events recorded so far to a new temporary file, which the caller deletes.
+   */
+  public static synchronized Path dump() throws IOException {
+    checkAvailable();
+    if (!running()) {
+      throw new IllegalStateException("No recording is running");
+    }
+    Path file = Files.createTempFile(NAME + "-", ".jfr");
+    try {
+      recording.dump(file);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    return file;
+  }
+
+  /**
+   * Stops and discards the recording, if any.
+   */
+  public static synchronized JsonObject stop() {
+    checkAvailable();
+    JsonObject status = status();
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+    return status.put("state", RecordingState.CLOSED.name());
+  }
+
+  public static synchronized JsonObject status() {
+    checkAvailable();
+    if (recording == null) {
+      return new JsonObject().put("name", NAME).put("state", RecordingState.CLOSED.name());
+    }
+    JsonObject status = new JsonObject()
+      .put("name", NAME)
+      .put("state", recording.getState().name())
+      .put("maxAge", recording.getMaxAge().getSeconds());
+    if (recording.getStartTime() != null) {
+      status.put("startTime", recording.getStartTime().toString());
+    }
+    return status;
+  }
+
+  private static boolean running() {
+    return recording != null && recording.getState() == RecordingState.RUNNING;
+  }
+
+  private static void checkAvailable() {
+    if (!WikiEvents.AVAILABLE) {
+      throw new UnsupportedOperationException("This JVM has no flight recorder");
+    }
+  }
+}
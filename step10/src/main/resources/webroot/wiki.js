@@ -20,9 +20,52 @@ angular.module("wikiApp", [])
       $scope.pageMarkdown = DEFAULT_MARKDOWN;
     };
 
+    // Once the page list is loaded, it is kept up to date from the change feed rather than reloaded.
+    var changeFeed = null;
+
+    var applyChange = function (change) {
+      var pages = _.reject($scope.pages, function (page) {
+        return page.id === change.id;
+      });
+      if (change.kind !== "deleted") {
+        pages.push({"id": change.id, "name": change.name});
+      }
+      $scope.pages = _.sortBy(pages, "id");
+    };
+
+    var followChanges = function (since) {
+      if (changeFeed !== null) {
+        changeFeed.close();
+        changeFeed = null;
+      }
+      if (typeof EventSource === "undefined") {
+        return;
+      }
+      changeFeed = new EventSource("/api/changes?since=" + since);
+      changeFeed.addEventListener("change", function (event) {
+        $scope.$apply(function () {
+          applyChange(JSON.parse(event.data));
+        });
+      });
+    };
+
     $scope.reload = function () {
-      $http.get("/api/pages").then(function (response) {
-        $scope.pages = response.data.pages;
+      var pages = [];
+      var fetch = function (after, since) {
+        var url = after === undefined ? "/api/pages" : "/api/pages?after=" + after;
+        $http.get(url).then(function (response) {
+          pages = pages.concat(response.data.pages);
+          if (response.data.next !== undefined) {
+            fetch(response.data.next, since);
+          } else {
+            $scope.pages = pages;
+            followChanges(since);
+          }
+        });
+      };
+      // The change log position is taken first, so that no change made while loading the list is missed.
+      $http.get("/api/changes").then(function (response) {
+        fetch(undefined, response.data.last);
       });
     };
 
@@ -51,7 +94,9 @@ angular.module("wikiApp", [])
           "markdown": $scope.pageMarkdown
         };
         $http.post("/api/pages", payload).then(function (ok) {
-          $scope.reload();
+          if (changeFeed === null) {
+            $scope.reload();
+          }
           $scope.success("Page created");
           var guessMaxId = _.maxBy($scope.pages, function (page) {
             return page.id;
@@ -75,7 +120,9 @@ angular.module("wikiApp", [])
 
     $scope.delete = function () {
       $http.delete("/api/pages/" + $scope.pageId).then(function (ok) {
-        $scope.reload();
+        if (changeFeed === null) {
+          $scope.reload();
+        }
         $scope.newPage();
         $scope.success("Page deleted");
       }, function (err) {
@@ -108,6 +155,88 @@ angular.module("wikiApp", [])
     $scope.reload();
     $scope.newPage();
 
+    var eb = new EventBus(window.location.protocol + "//" + window.location.host + "/eventbus");
+    var ebOpen = false;
+
+    // Incremental preview: only the blocks (separated by blank lines) that changed since the last
+    // reply are sent to the server, which answers with the HTML of those blocks only.
+    var preview = {
+      session: generateUUID(),
+      revision: undefined,
+      blocks: [],
+      html: [],
+      inFlight: false,
+      next: null
+    };
+
+    // A blank line only ends a block when the next line cannot continue it: txtmark renders list items, indented
+    // code and quotes across blank lines as one element, so they stay in the block they continue.
+    var splitBlocks = function (text) {
+      var parts = text.split(/(\n(?:[ \t]*\n)+)/);
+      var blocks = [parts[0]];
+      for (var i = 1; i < parts.length; i += 2) {
+        if (/^(?:[ \t]|>|[*+-][ \t]|\d+\.[ \t])/.test(parts[i + 1])) {
+          blocks[blocks.length - 1] += parts[i] + parts[i + 1];
+        } else {
+          blocks.push(parts[i + 1]);
+        }
+      }
+      return blocks;
+    };
+
+    var sendPreview = function (text) {
+      if (preview.inFlight) {
+        preview.next = text;
+        return;
+      }
+      var blocks = splitBlocks(text);
+      var request = {"session": preview.session, "start": 0, "deleteCount": 0, "blocks": blocks};
+      if (preview.revision !== undefined) {
+        var old = preview.blocks;
+        var prefix = 0;
+        while (prefix < old.length && prefix < blocks.length && old[prefix] === blocks[prefix]) {
+          prefix++;
+        }
+        var suffix = 0;
+        while (suffix < old.length - prefix && suffix < blocks.length - prefix
+          && old[old.length - 1 - suffix] === blocks[blocks.length - 1 - suffix]) {
+          suffix++;
+        }
+        request.base = preview.revision;
+        request.start = prefix;
+        request.deleteCount = old.length - prefix - suffix;
+        request.blocks = blocks.slice(prefix, blocks.length - suffix);
+      }
+      preview.inFlight = true;
+      eb.send("app.markdown", request, function (err, reply) {
+        preview.inFlight = false;
+        if (err === null) {
+          var body = reply.body;
+          var html = preview.revision === undefined ? [] : preview.html;
+          Array.prototype.splice.apply(html, [body.start, body.deleteCount].concat(body.html));
+          preview.html = html;
+          preview.blocks = blocks;
+          preview.revision = body.revision;
+          $scope.$apply(function () {
+            $scope.updateRendering(html.join(""));
+          });
+        } else {
+          preview.revision = undefined;
+          if (err.failureCode === 409 && preview.next === null) {
+            // Out of sync with the server, or the session expired: start over with the full document.
+            preview.next = text;
+          } else {
+            console.warn("Error rendering Markdown content: " + JSON.stringify(err));
+          }
+        }
+        if (preview.next !== null) {
+          var pending = preview.next;
+          preview.next = null;
+          sendPreview(pending);
+        }
+      });
+    };
+
     var markdownRenderingPromise = null;
     $scope.$watch("pageMarkdown", function (text) {
       if (markdownRenderingPromise !== null) {
@@ -115,33 +244,50 @@ angular.module("wikiApp", [])
       }
       markdownRenderingPromise = $timeout(function () {
         markdownRenderingPromise = null;
-        $http.post("/app/markdown", text).then(function (response) {
-          $scope.updateRendering(response.data);
-        });
+        // Blocks are rendered independently, so link reference definitions need the whole document.
+        if (ebOpen && !/^ {0,3}\[[^\]]+\]:/m.test(text)) {
+          sendPreview(text);
+        } else {
+          $http.post("/app/markdown", text).then(function (response) {
+            $scope.updateRendering(response.data);
+          });
+        }
       }, 300);
     });
 
-    var eb = new EventBus(window.location.protocol + "//" + window.location.host + "/eventbus");
-    // eb.send("app.markdown", text, function (err, reply) {
-    //   if (err === null) {
-    //     $scope.$apply(function () {
-    //       $scope.updateRendering(reply.body);
-    //     });
-    //   } else {
-    //     console.warn("Error rendering Markdown content: " + JSON.stringify(err));
-    //   }
-    // })
-
     var clientUuid = generateUUID();
+    var pageSavedHandler = function (error, message) {
+      if (message.body
+        && $scope.pageId === message.body.id
+        && clientUuid !== message.body.client) {
+        $scope.$apply(function () {
+          $scope.pageModified = true;
+        });
+      }
+    };
+
+    // Save notifications are published per page, on page.saved.<id>
+    var subscribedPageId;
+    var subscribePageEvents = function () {
+      if (!ebOpen || subscribedPageId === $scope.pageId) {
+        return;
+      }
+      if (subscribedPageId !== undefined) {
+        eb.unregisterHandler("page.saved." + subscribedPageId, pageSavedHandler);
+      }
+      subscribedPageId = $scope.pageId;
+      if (subscribedPageId !== undefined) {
+        eb.registerHandler("page.saved." + subscribedPageId, pageSavedHandler);
+      }
+    };
+    $scope.$watch("pageId", subscribePageEvents);
+
+    eb.onclose = function () {
+      ebOpen = false;
+      subscribedPageId = undefined;
+    };
     eb.onopen = function () {
-      eb.registerHandler("page.saved", function (error, message) {
-        if (message.body
-          && $scope.pageId === message.body.id
-          && clientUuid !== message.body.client) {
-          $scope.$apply(function () {
-            $scope.pageModified = true;
-          });
-        }
-      });
+      ebOpen = true;
+      subscribePageEvents();
     };
   }]);
@@ -1,7 +1,9 @@
 package io.vertx.wiki.database;
 
+import io.reactivex.Flowable;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
@@ -9,9 +11,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.util.Arrays;
+
 import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE;
 import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_URL;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(VertxExtension.class)
@@ -84,4 +89,172 @@ class WikiDatabaseVerticleTest {
         });
       }, testContext::failNow);
   }
+
+  @Test
+  public void test_fetchPageSummaries(VertxTestContext testContext) {
+    service.rxCreatePage("A", "abc")
+      .andThen(service.rxCreatePage("B", "123"))
+      .andThen(service.rxCreatePage("C", "xyz"))
+      .andThen(service.rxFetchPageSummaries(-1, 2))
+      .flatMap(first -> {
+        testContext.verify(() -> {
+          assertEquals(2, first.size());
+          assertEquals("A", first.getJsonObject(0).getString("name"));
+          assertEquals("B", first.getJsonObject(1).getString("name"));
+          assertFalse(first.getJsonObject(0).containsKey("content"));
+        });
+        return service.rxFetchPageSummaries(first.getJsonObject(1).getInteger("id"), 2);
+      })
+      .subscribe(second -> {
+        testContext.verify(() -> {
+          assertEquals(1, second.size());
+          assertEquals("C", second.getJsonObject(0).getString("name"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_searchPages(VertxTestContext testContext) {
+    service.rxCreatePage("Vert.x", "Reactive toolkit for the JVM")
+      .andThen(service.rxCreatePage("Cooking", "Recipes with a reactive twist"))
+      .andThen(service.rxCreatePage("Gardening", "Tomatoes and basil"))
+      .andThen(service.rxSearchPages("reactive toolkit", 10))
+      .flatMap(results -> {
+        testContext.verify(() -> {
+          assertEquals(2, results.size());
+          assertEquals("Vert.x", results.getJsonObject(0).getString("name"));
+          assertEquals("Cooking", results.getJsonObject(1).getString("name"));
+        });
+        return service.rxFetchPage("Cooking")
+          .flatMapCompletable(page -> service.rxSavePage(page.getInteger("id"), "Pasta"))
+          .andThen(service.rxSearchPages("reactive", 10));
+      })
+      .subscribe(results -> {
+        testContext.verify(() -> {
+          assertEquals(1, results.size());
+          assertEquals("Vert.x", results.getJsonObject(0).getString("name"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_completePageNames(VertxTestContext testContext) {
+    service.rxCreatePage("Vertx", "abc")
+      .andThen(service.rxCreatePage("Vert.x", "123"))
+      .andThen(service.rxCreatePage("Verb", "xyz"))
+      .andThen(service.rxCreatePage("Alpha", "xyz"))
+      .andThen(service.rxCompletePageNames("Vert", 10))
+      .flatMap(names -> {
+        testContext.verify(() -> {
+          assertEquals(2, names.size());
+          assertEquals("Vert.x", names.getString(0));
+          assertEquals("Vertx", names.getString(1));
+        });
+        return service.rxFetchAllPages();
+      })
+      .subscribe(names -> {
+        testContext.verify(() -> {
+          assertEquals(4, names.size());
+          assertEquals("Alpha", names.getString(0));
+          assertEquals("Verb", names.getString(1));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_eventBusAndLocalDelivery(Vertx vertx, VertxTestContext testContext) {
+    io.vertx.wiki.database.reactivex.WikiDatabaseService eventBusService =
+      io.vertx.wiki.database.WikiDatabaseService.createProxy(vertx, WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE, false);
+    eventBusService.rxCreatePage("Remote", "Sent over the event bus")
+      .andThen(service.rxFetchPage("Remote"))
+      .subscribe(page -> {
+        testContext.verify(() -> {
+          assertTrue(page.getBoolean("found"));
+          assertEquals("Sent over the event bus", page.getString("rawContent"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_fetchPagesByIds(VertxTestContext testContext) {
+    service.rxCreatePage("A", "abc")
+      .andThen(service.rxCreatePage("B", "123"))
+      .andThen(service.rxCreatePage("C", "xyz"))
+      .andThen(service.rxFetchPageSummaries(-1, 10))
+      .flatMap(pages -> service.rxFetchPagesByIds(Arrays.asList(
+        pages.getJsonObject(0).getInteger("id"),
+        pages.getJsonObject(2).getInteger("id"),
+        -42)))
+      .subscribe(pages -> {
+        testContext.verify(() -> {
+          assertEquals(2, pages.size());
+          assertEquals("A", pages.getJsonObject(0).getString("name"));
+          assertEquals("abc", pages.getJsonObject(0).getString("content"));
+          assertEquals("C", pages.getJsonObject(1).getString("name"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_storedHtml(VertxTestContext testContext) {
+    service.rxCreatePage("Rendered", "# Hello")
+      .andThen(service.rxFetchPage("Rendered"))
+      .flatMap(page -> {
+        testContext.verify(() -> assertEquals("<h1>Hello</h1>\n", page.getString("html")));
+        return service.rxSavePage(page.getInteger("id"), "*updated*")
+          .andThen(service.rxFetchPageById(page.getInteger("id")));
+      })
+      .subscribe(page -> {
+        testContext.verify(() -> {
+          assertEquals("<p><em>updated</em></p>\n", page.getString("html"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_fetchChanges(VertxTestContext testContext) {
+    service.rxFetchChanges(-1, 10)
+      .flatMap(head -> service.rxCreatePage("Changed", "v1")
+        .andThen(service.rxFetchPage("Changed"))
+        .flatMapCompletable(page -> service.rxSavePage(page.getInteger("id"), "v2")
+          .andThen(service.rxDeletePage(page.getInteger("id"))))
+        .andThen(service.rxFetchChanges(head.getLong("last"), 10)))
+      .subscribe(feed -> {
+        testContext.verify(() -> {
+          JsonArray changes = feed.getJsonArray("changes");
+          assertEquals(3, changes.size());
+          assertEquals("created", changes.getJsonObject(0).getString("kind"));
+          assertEquals("updated", changes.getJsonObject(1).getString("kind"));
+          assertEquals("deleted", changes.getJsonObject(2).getString("kind"));
+          assertEquals("Changed", changes.getJsonObject(2).getString("name"));
+          assertTrue(changes.getJsonObject(0).getLong("seq") < changes.getJsonObject(2).getLong("seq"));
+          assertEquals(changes.getJsonObject(2).getLong("seq"), feed.getLong("last"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_coalescedPageFetches(VertxTestContext testContext) {
+    service.rxCreatePage("Popular", "Linked from chat")
+      .andThen(Flowable.range(0, 20)
+        .flatMapSingle(i -> service.rxFetchPage("Popular"))
+        .toList())
+      .flatMap(pages -> service.rxFetchPageFetchStats().map(stats -> {
+        testContext.verify(() -> {
+          pages.forEach(page -> assertEquals("Linked from chat", page.getString("rawContent")));
+          assertEquals(20, stats.getLong("queries") + stats.getLong("coalesced"));
+          assertTrue(stats.getLong("coalesced") > 0);
+          assertEquals(0, (int) stats.getInteger("inFlight"));
+        });
+        return stats;
+      }))
+      .subscribe(stats -> testContext.completeNow(), testContext::failNow);
+  }
 }
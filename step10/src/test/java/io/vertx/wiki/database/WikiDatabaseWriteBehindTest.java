@@ -0,0 +1,129 @@
+package io.vertx.wiki.database;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.reactivex.core.RxHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE;
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_URL;
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_WRITE_BEHIND_WINDOW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(VertxExtension.class)
+class WikiDatabaseWriteBehindTest {
+  private static final String JDBC_URL = "jdbc:hsqldb:mem:testdb";
+
+  private io.vertx.wiki.database.reactivex.WikiDatabaseService service;
+
+  @BeforeEach
+  public void prepare(Vertx vertx, VertxTestContext vertxTestContext) {
+    JsonObject conf = new JsonObject()
+      .put(CONFIG_WIKIDB_JDBC_URL, JDBC_URL + ";shutdown=true")
+      .put(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4)
+      .put(CONFIG_WIKIDB_WRITE_BEHIND_WINDOW, 50);
+
+    vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(conf), vertxTestContext.succeeding(
+      id -> {
+        service = io.vertx.wiki.database.WikiDatabaseService.createProxy(vertx, WikiDatabaseVerticle.CONFIG_WIKIDB_QUEUE);
+        vertxTestContext.completeNow();
+      }
+    ));
+  }
+
+  @Test
+  public void coalesced_saves_are_acknowledged(VertxTestContext testContext) {
+    service.rxCreatePage("Test", "Some content")
+      .andThen(service.rxFetchPage("Test"))
+      .flatMap(page -> {
+        int id = page.getInteger("id");
+        return Completable.mergeArray(
+          service.rxSavePage(id, "One"),
+          service.rxSavePage(id, "Two"),
+          service.rxSavePage(id, "Three"))
+          .andThen(service.rxFetchPageById(id));
+      })
+      .subscribe(page -> {
+        testContext.verify(() -> {
+          assertEquals("Three", page.getString("content"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void deferred_saves_are_visible_before_flush(VertxTestContext testContext) {
+    service.rxCreatePage("Test", "Some content")
+      .andThen(service.rxFetchPage("Test"))
+      .flatMap(page -> service.rxSavePageDeferred(page.getInteger("id"), "Deferred")
+        .andThen(service.rxFetchPage("Test")))
+      .subscribe(page -> {
+        testContext.verify(() -> {
+          assertEquals("Deferred", page.getString("rawContent"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void failed_flushes_are_retried(Vertx vertx, VertxTestContext testContext) {
+    Scheduler scheduler = RxHelper.scheduler(io.vertx.reactivex.core.Vertx.newInstance(vertx));
+    int[] id = new int[1];
+    service.rxCreatePage("Test", "Some content")
+      .andThen(service.rxFetchPage("Test"))
+      .flatMapCompletable(page -> {
+        id[0] = page.getInteger("id");
+        // Appending to the change log fails, and with it the transaction of the flush
+        execute("set table Changes read only");
+        return service.rxSavePageDeferred(id[0], "Retried content");
+      })
+      .andThen(Completable.timer(200, TimeUnit.MILLISECONDS, scheduler))
+      .andThen(service.rxSearchPages("retried", 10))
+      .flatMapCompletable(results -> {
+        testContext.verify(() -> {
+          assertEquals(1, results.size());
+          assertEquals("Some content", storedContent(id[0]));
+        });
+        execute("set table Changes read write");
+        return Completable.timer(1000, TimeUnit.MILLISECONDS, scheduler);
+      })
+      .andThen(service.rxFetchPageById(id[0]))
+      .subscribe(page -> testContext.verify(() -> {
+        assertEquals("Retried content", storedContent(id[0]));
+        assertEquals("Retried content", page.getString("content"));
+        testContext.completeNow();
+      }), testContext::failNow);
+  }
+
+  private static void execute(String sql) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(JDBC_URL, "SA", "");
+         Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static String storedContent(int id) {
+    try (Connection connection = DriverManager.getConnection(JDBC_URL, "SA", "");
+         Statement statement = connection.createStatement();
+         ResultSet result = statement.executeQuery("select Content from Pages where Id = " + id)) {
+      result.next();
+      return result.getString(1);
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
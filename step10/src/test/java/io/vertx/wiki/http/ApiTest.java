@@ -3,6 +3,7 @@ package io.vertx.wiki.http;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.JksOptions;
@@ -12,19 +13,30 @@ import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.codec.BodyCodec;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
+import io.vertx.wiki.database.PageRenderer;
 import io.vertx.wiki.database.WikiDatabaseVerticle;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE;
 import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_URL;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @ExtendWith(VertxExtension.class)
 public class ApiTest {
   private WebClient webClient;
+  private WebClient adminClient;
   private String jwtTokenHeaderValue;
 
   @BeforeEach
@@ -35,10 +47,14 @@ public class ApiTest {
 
     vertx.deployVerticle(new WikiDatabaseVerticle(),
       new DeploymentOptions().setConfig(dbConf), testContext.succeeding(dbV -> {
-        vertx.deployVerticle(new HttpServerVerticle(), testContext.succeeding(httpV -> {
+        vertx.deployVerticle(new HttpServerVerticle(), new DeploymentOptions()
+          .setConfig(new JsonObject().put(HttpServerVerticle.CONFIG_HTTP_ADMIN_PORT, 8081)), testContext.succeeding(httpV -> {
           webClient = WebClient.create(vertx, new WebClientOptions()
             .setDefaultHost("localhost")
             .setDefaultPort(8080));
+          adminClient = WebClient.create(vertx, new WebClientOptions()
+            .setDefaultHost("localhost")
+            .setDefaultPort(8081));
           testContext.completeNow();
         }));
       }));
@@ -142,4 +158,123 @@ public class ApiTest {
       testContext.completeNow();
     }, Future.failedFuture("Oh?"));
   }
+
+  @Test
+  public void test_markdownPreviewOffloading(VertxTestContext testContext) {
+    StringBuilder markdown = new StringBuilder("# Large page\n\n");
+    while (markdown.length() < 64 * 1024) {
+      markdown.append("Some *emphasized* paragraph text.\n\n");
+    }
+    webClient.post("/app/markdown")
+      .as(BodyCodec.string())
+      .sendBuffer(Buffer.buffer(markdown.toString()), testContext.succeeding(preview -> {
+        testContext.verify(() -> {
+          assertEquals(200, preview.statusCode());
+          assertTrue(preview.body().startsWith("<h1>Large page</h1>"));
+        });
+        adminClient.get("/api/render-pool")
+          .as(BodyCodec.jsonObject())
+          .send(testContext.succeeding(stats -> testContext.verify(() -> {
+            JsonObject pool = stats.body().getJsonObject("stats");
+            assertEquals(1L, pool.getLong("offloaded").longValue());
+            assertEquals(0L, pool.getLong("rejected").longValue());
+            testContext.completeNow();
+          })));
+      }));
+  }
+
+  @Test
+  public void test_markdownPreviewCache(VertxTestContext testContext) {
+    Buffer markdown = Buffer.buffer("*Preview* me");
+    webClient.post("/app/markdown").as(BodyCodec.string()).sendBuffer(markdown, testContext.succeeding(first ->
+      webClient.post("/app/markdown").as(BodyCodec.string()).sendBuffer(markdown, testContext.succeeding(second ->
+        adminClient.get("/api/preview-cache")
+          .as(BodyCodec.jsonObject())
+          .send(testContext.succeeding(stats -> testContext.verify(() -> {
+            assertEquals(first.body(), second.body());
+            JsonObject cache = stats.body().getJsonObject("stats");
+            assertEquals(1L, cache.getLong("misses").longValue());
+            assertEquals(1L, cache.getLong("hits").longValue());
+            testContext.completeNow();
+          })))))));
+  }
+
+  @Test
+  public void test_conditionalGet(VertxTestContext testContext) {
+    webClient.post("/api/pages").sendJsonObject(new JsonObject()
+      .put("name", "Cached")
+      .put("markdown", "# Cached"), testContext.succeeding(created ->
+      webClient.get("/api/pages/0").send(testContext.succeeding(first -> {
+        String etag = first.getHeader("ETag");
+        testContext.verify(() -> {
+          assertEquals(200, first.statusCode());
+          assertEquals("\"0-0-r" + PageRenderer.VERSION + "\"", etag);
+          assertTrue(first.headers().contains("Last-Modified"));
+        });
+        webClient.get("/api/pages/0").putHeader("If-None-Match", etag).send(testContext.succeeding(second -> {
+          testContext.verify(() -> assertEquals(304, second.statusCode()));
+          webClient.put("/api/pages/0").sendJsonObject(new JsonObject().put("markdown", "Changed"), testContext.succeeding(saved ->
+            webClient.get("/api/pages/0").putHeader("If-None-Match", etag).send(testContext.succeeding(third -> testContext.verify(() -> {
+              assertEquals(200, third.statusCode());
+              assertEquals("\"0-1-r" + PageRenderer.VERSION + "\"", third.getHeader("ETag"));
+              testContext.completeNow();
+            })))));
+        }));
+      }))));
+  }
+
+  @Test
+  public void test_metrics(VertxTestContext testContext) {
+    webClient.get("/metrics").send(testContext.succeeding(notServed ->
+      webClient.get("/api/pages/42").send(testContext.succeeding(missing ->
+        adminClient.get("/metrics").as(BodyCodec.string()).send(testContext.succeeding(metrics -> testContext.verify(() -> {
+          assertEquals(404, notServed.statusCode());
+          assertEquals(200, metrics.statusCode());
+          String body = metrics.body();
+          assertTrue(body.contains("wiki_http_server_requests_seconds_count{method=\"GET\",route=\"/api/pages/:id\",status=\"404\",}"));
+          assertTrue(body.contains("wiki_sql_query_seconds_bucket{outcome=\"success\",query=\"get_page_by_id\","));
+          assertTrue(body.contains("wiki_sql_query_rows_count{query=\"get_page_by_id\",}"));
+          assertTrue(body.contains("wiki_dbservice_calls_seconds_count{delivery=\"local\",method=\"fetchPageById\",outcome=\"success\",}"));
+          testContext.completeNow();
+        })))))));
+  }
+
+  @Test
+  public void test_flight_recording(VertxTestContext testContext) {
+    webClient.post("/admin/recording").send(testContext.succeeding(notServed ->
+      adminClient.post("/admin/recording").send(testContext.succeeding(started -> {
+        assumeTrue(started.statusCode() != 501, "This JVM has no flight recorder");
+        webClient.get("/api/pages/42").send(testContext.succeeding(missing ->
+          adminClient.get("/admin/recording").send(testContext.succeeding(dump ->
+            adminClient.delete("/admin/recording").send(testContext.succeeding(stopped -> testContext.verify(() -> {
+              assertEquals(404, notServed.statusCode());
+              assertEquals(200, started.statusCode());
+              assertEquals(200, dump.statusCode());
+              assertEquals(200, stopped.statusCode());
+              List<RecordedEvent> events = recordedEvents(dump.body());
+              assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("io.vertx.wiki.HttpRequest")
+                && event.getString("route").equals("/api/pages/:id") && event.getInt("pageId") == 42
+                && event.getInt("status") == 404));
+              assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("io.vertx.wiki.SqlQuery")
+                && event.getString("query").equals("get_page_by_id")));
+              assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("io.vertx.wiki.ServiceCall")
+                && event.getString("method").equals("fetchPageById") && event.getInt("pageId") == 42));
+              testContext.completeNow();
+            })))))));
+      }))));
+  }
+
+  private List<RecordedEvent> recordedEvents(Buffer dump) {
+    try {
+      Path file = Files.createTempFile("api-test-", ".jfr");
+      try {
+        Files.write(file, dump.getBytes());
+        return RecordingFile.readAllEvents(file);
+      } finally {
+        Files.delete(file);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 }
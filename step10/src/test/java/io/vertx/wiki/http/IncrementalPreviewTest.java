@@ -0,0 +1,64 @@
+package io.vertx.wiki.http;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncrementalPreviewTest {
+
+  @Test
+  public void renders_only_changed_blocks() {
+    IncrementalPreview preview = new IncrementalPreview(16);
+
+    JsonObject first = preview.apply(new JsonObject()
+      .put("session", "s1")
+      .put("blocks", new JsonArray().add("# Title").add("First").add("Last")));
+    assertEquals(1, first.getInteger("revision").intValue());
+    assertEquals(3, first.getJsonArray("html").size());
+    assertEquals("<h1>Title</h1>\n", first.getJsonArray("html").getString(0));
+
+    JsonObject second = preview.apply(new JsonObject()
+      .put("session", "s1")
+      .put("base", 1)
+      .put("start", 1)
+      .put("deleteCount", 1)
+      .put("blocks", new JsonArray().add("*Changed*")));
+    assertEquals(2, second.getInteger("revision").intValue());
+    assertEquals(1, second.getInteger("start").intValue());
+    assertEquals(new JsonArray().add("<p><em>Changed</em></p>\n"), second.getJsonArray("html"));
+    assertEquals(4L, preview.stats().getLong("renderedBlocks").longValue());
+  }
+
+  @Test
+  public void blocks_render_as_the_whole_document() {
+    IncrementalPreview preview = new IncrementalPreview(16);
+    String list = "1. one\n\n2. two\n\n    code a\n\n    code b";
+
+    JsonArray html = preview.apply(new JsonObject()
+      .put("session", "s3")
+      .put("blocks", new JsonArray().add("# Title").add(list).add("Last")))
+      .getJsonArray("html");
+    assertEquals(Processor.process("# Title\n\n" + list + "\n\nLast"),
+      html.getString(0) + html.getString(1) + html.getString(2));
+  }
+
+  @Test
+  public void rejects_stale_revisions() {
+    IncrementalPreview preview = new IncrementalPreview(16);
+    preview.apply(new JsonObject().put("session", "s2").put("blocks", new JsonArray().add("Text")));
+
+    assertThrows(IllegalStateException.class, () -> preview.apply(new JsonObject()
+      .put("session", "s2")
+      .put("base", 0)
+      .put("blocks", new JsonArray())));
+    assertThrows(IllegalStateException.class, () -> preview.apply(new JsonObject()
+      .put("session", "unknown")
+      .put("base", 3)
+      .put("blocks", new JsonArray())));
+    assertEquals(2L, preview.stats().getLong("resyncs").longValue());
+  }
+}
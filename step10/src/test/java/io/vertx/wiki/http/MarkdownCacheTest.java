@@ -0,0 +1,20 @@
+package io.vertx.wiki.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MarkdownCacheTest {
+
+  @Test
+  public void colliding_markdown_is_rendered_again() {
+    MarkdownCache cache = new MarkdownCache(1024);
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+
+    assertEquals("<p>Aa</p>\n", cache.render(1, "Aa"));
+    assertEquals("<p>BB</p>\n", cache.render(1, "BB"));
+    assertEquals("<p>BB</p>\n", cache.render(1, "BB"));
+    assertEquals(1L, cache.stats().getLong("hits").longValue());
+    assertEquals(2L, cache.stats().getLong("misses").longValue());
+  }
+}
@@ -61,9 +61,23 @@ tasks {
     dependsOn("codeGen")
   }
   
+  register("checkJdk") {
+    group = "build"
+    description = "check that the JDK provides the flight recorder API"
+    doLast {
+      try {
+        Class.forName("jdk.jfr.FlightRecorder", false, ClassLoader.getSystemClassLoader())
+      } catch (e: ClassNotFoundException) {
+        throw GradleException("The wiki events need the jdk.jfr API, which comes with JDK 8u262 and 11: " +
+          "${System.getProperty("java.home")} (${System.getProperty("java.version")}) does not provide it")
+      }
+    }
+  }
+
   register("codeGen", JavaCompile::class) {
     group = "build"
     description = "generate vertx service code"
+    dependsOn("checkJdk")
     source = sourceSets.getByName("main").java
     classpath = configurations.getByName("compileClasspath")
     destinationDir = project.file("src/main/generated")
@@ -0,0 +1,80 @@
+package io.vertx.wiki.database;
+
+import java.util.Collection;
+
+/**
+ * Bloom filter over page names, so that lookups of pages that do not exist can be answered without a query.
+ * <p>
+ * There are no false negatives as long as every created name is added, including before its insert is committed;
+ * names of deleted pages stay in the filter and only cost a query. Filters are sized for a number of names at about
+ * a 1% false positive rate, and report when that many names have been added so that the owner can rebuild a larger
+ * one. Not thread-safe.
+ */
+final class PageNameFilter {
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+  private static final int MIN_CAPACITY = 1024;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final long[] bits;
+  private final int bitCount;
+  private final int hashCount;
+  private final int capacity;
+  private int size;
+
+  private PageNameFilter(int capacity) {
+    this.capacity = capacity;
+    long m = (long) Math.ceil(-capacity * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+    bitCount = (int) Math.min(m, Integer.MAX_VALUE - 63);
+    bits = new long[(bitCount + 63) / 64];
+    hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+  }
+
+  /**
+   * @return a filter holding {@code names}, with room for as many names again
+   */
+  static PageNameFilter of(Collection<String> names) {
+    PageNameFilter filter = new PageNameFilter(Math.max(MIN_CAPACITY, names.size() * 2));
+    names.forEach(filter::add);
+    return filter;
+  }
+
+  void add(String name) {
+    long hash = hash(name);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+      bits[bit >>> 6] |= 1L << bit;
+    }
+    size++;
+  }
+
+  boolean mightContain(String name) {
+    long hash = hash(name);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+      if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isFull() {
+    return size >= capacity;
+  }
+
+  private static long hash(String name) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < name.length(); i++) {
+      hash ^= name.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+}
@@ -8,6 +8,10 @@ public enum SqlQuery {
   SAVE_PAGE,
   DELETE_PAGE,
   ALL_PAGES_DATA,
-  GET_PAGE_BY_ID
+  GET_PAGE_BY_ID,
+  PAGES_COLUMNS,
+  ADD_PAGES_REVISION_COLUMN,
+  ADD_PAGES_UPDATED_COLUMN,
+  GET_PAGE_VERSION
 }
 
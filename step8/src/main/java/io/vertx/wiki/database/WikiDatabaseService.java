@@ -24,6 +24,9 @@ public interface WikiDatabaseService {
   @Fluent
   WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler);
 
+  @Fluent
+  WikiDatabaseService fetchPageVersion(String name, Handler<AsyncResult<JsonObject>> resultHandler);
+
   @Fluent
   WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Void>> resultHandler);
 
@@ -39,10 +42,13 @@ public interface WikiDatabaseService {
   @Fluent
   WikiDatabaseService fetchPageById(int id, Handler<AsyncResult<JsonObject>> resultHandler);
 
+  @Fluent
+  WikiDatabaseService exportPages(String address, Handler<AsyncResult<Void>> resultHandler);
+
   @GenIgnore
-  static WikiDatabaseService create(JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries,
+  static WikiDatabaseService create(io.vertx.reactivex.core.Vertx vertx, JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries,
                                     Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
-      return new WikiDatabaseServiceImpl(dbClient, sqlQueries, readyHandler);
+      return new WikiDatabaseServiceImpl(vertx, dbClient, sqlQueries, readyHandler);
   }
 
   @GenIgnore
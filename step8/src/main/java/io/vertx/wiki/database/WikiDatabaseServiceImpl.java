@@ -3,31 +3,74 @@ package io.vertx.wiki.database;
 import io.reactivex.Flowable;
 import io.reactivex.Single;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.sql.ResultSet;
 import io.vertx.reactivex.CompletableHelper;
 import io.vertx.reactivex.SingleHelper;
+import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.ext.jdbc.JDBCClient;
 import io.vertx.reactivex.ext.sql.SQLClientHelper;
+import io.vertx.reactivex.ext.sql.SQLRowStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @SuppressWarnings("Duplicates")
 public class WikiDatabaseServiceImpl implements WikiDatabaseService {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WikiDatabaseServiceImpl.class);
+
+  /*
+   * Columns added to the Pages table after its first release, with the statement adding each of them to an existing
+   * table.
+   */
+  private static final Map<String, SqlQuery> ADDED_PAGES_COLUMNS = new LinkedHashMap<>();
+
+  static {
+    ADDED_PAGES_COLUMNS.put("REVISION", SqlQuery.ADD_PAGES_REVISION_COLUMN);
+    ADDED_PAGES_COLUMNS.put("UPDATED", SqlQuery.ADD_PAGES_UPDATED_COLUMN);
+  }
 
   private final HashMap<SqlQuery, String> sqlQueries;
   private final JDBCClient dbClient;
+  private final Vertx vertx;
+
+  /*
+   * Names of the pages that may exist, and the names created while a larger filter is being loaded. Only touched
+   * from the verticle context.
+   */
+  private PageNameFilter pageNames;
+  private Set<String> namesCreatedDuringRebuild;
 
-  WikiDatabaseServiceImpl(JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+  WikiDatabaseServiceImpl(Vertx vertx, JDBCClient dbClient, HashMap<SqlQuery, String> sqlQueries, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+    this.vertx = vertx;
     this.dbClient = dbClient;
     this.sqlQueries = sqlQueries;
 
     SQLClientHelper.usingConnectionSingle(this.dbClient, conn -> conn
       .rxExecute(sqlQueries.get(SqlQuery.CREATE_PAGES_TABLE))
-      .andThen(Single.just(this)))
+      .andThen(conn.rxQuery(sqlQueries.get(SqlQuery.PAGES_COLUMNS)))
+      .flatMapCompletable(result -> {
+        Set<String> columns = new HashSet<>();
+        result.getResults().forEach(row -> columns.add(row.getString(0)));
+        return Flowable.fromIterable(ADDED_PAGES_COLUMNS.entrySet())
+          .filter(column -> !columns.contains(column.getKey()))
+          .concatMapCompletable(column -> conn.rxExecute(sqlQueries.get(column.getValue())));
+      })
+      .andThen(conn.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES)))
+      .map(result -> {
+        pageNames = PageNameFilter.of(names(result));
+        return this;
+      }))
       .subscribe(SingleHelper.toObserver(readyHandler));
   }
 
@@ -46,8 +89,45 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
     return this;
   }
 
+  private static List<String> names(ResultSet result) {
+    List<String> names = new ArrayList<>(result.getNumRows());
+    result.getResults().forEach(row -> names.add(row.getString(0)));
+    return names;
+  }
+
+  /*
+   * Loads a filter sized for twice the current number of pages, keeping the current one meanwhile: if loading fails,
+   * it still has no false negatives, only more false positives.
+   */
+  private void rebuildPageNameFilter() {
+    namesCreatedDuringRebuild = new HashSet<>();
+    dbClient.rxQuery(sqlQueries.get(SqlQuery.ALL_PAGES))
+      .doFinally(() -> namesCreatedDuringRebuild = null)
+      .subscribe(result -> {
+        PageNameFilter filter = PageNameFilter.of(names(result));
+        namesCreatedDuringRebuild.forEach(filter::add);
+        pageNames = filter;
+      }, t -> LOGGER.error("Could not rebuild the page name filter", t));
+  }
+
+  private void addPageName(String name) {
+    pageNames.add(name);
+    if (namesCreatedDuringRebuild != null) {
+      namesCreatedDuringRebuild.add(name);
+    } else if (pageNames.isFull()) {
+      rebuildPageNameFilter();
+    }
+  }
+
+  /**
+   * Answers {@code {"found": false}} without a query for names that are not in the page name filter.
+   */
   @Override
   public WikiDatabaseService fetchPage(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+    if (!pageNames.mightContain(name)) {
+      resultHandler.handle(Future.succeededFuture(new JsonObject().put("found", false)));
+      return this;
+    }
     dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE), new JsonArray().add(name))
       .map(result -> {
         if (result.getNumRows() == 0) {
@@ -57,7 +137,35 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
           return new JsonObject()
             .put("found", true)
             .put("id", row.getInteger(0))
-            .put("rawContent", row.getString(1));
+            .put("rawContent", row.getString(1))
+            .put("revision", row.getInteger(2))
+            .put("updated", row.getLong(3));
+        }
+      }).subscribe(SingleHelper.toObserver(resultHandler));
+    return this;
+  }
+
+  /**
+   * Fetches the id, revision and last update time of a page, without its content, as
+   * {@code {"found", "id", "revision", "updated"}}.
+   */
+  @Override
+  public WikiDatabaseService fetchPageVersion(String name, Handler<AsyncResult<JsonObject>> resultHandler) {
+    if (!pageNames.mightContain(name)) {
+      resultHandler.handle(Future.succeededFuture(new JsonObject().put("found", false)));
+      return this;
+    }
+    dbClient.rxQueryWithParams(sqlQueries.get(SqlQuery.GET_PAGE_VERSION), new JsonArray().add(name))
+      .map(result -> {
+        if (result.getNumRows() == 0) {
+          return new JsonObject().put("found", false);
+        } else {
+          JsonArray row = result.getResults().get(0);
+          return new JsonObject()
+            .put("found", true)
+            .put("id", row.getInteger(0))
+            .put("revision", row.getInteger(1))
+            .put("updated", row.getLong(2));
         }
       }).subscribe(SingleHelper.toObserver(resultHandler));
     return this;
@@ -65,7 +173,10 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
 
   @Override
   public WikiDatabaseService createPage(String title, String markdown, Handler<AsyncResult<Void>> resultHandler) {
-    dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.CREATE_PAGE), new JsonArray().add(title).add(markdown))
+    // Before the insert, so that no lookup can miss a committed page
+    addPageName(title);
+    dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.CREATE_PAGE), new JsonArray()
+      .add(title).add(markdown).add(System.currentTimeMillis()))
       .ignoreElement()
       .subscribe(CompletableHelper.toObserver(resultHandler));
     return this;
@@ -73,7 +184,8 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
 
   @Override
   public WikiDatabaseService savePage(int id, String markdown, Handler<AsyncResult<Void>> resultHandler) {
-    dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE), new JsonArray().add(markdown).add(id))
+    dbClient.rxUpdateWithParams(sqlQueries.get(SqlQuery.SAVE_PAGE), new JsonArray()
+      .add(markdown).add(System.currentTimeMillis()).add(id))
       .ignoreElement()
       .subscribe(CompletableHelper.toObserver(resultHandler));
     return this;
@@ -112,4 +224,22 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
       }).subscribe(SingleHelper.toObserver(resultHandler));
     return this;
   }
+
+  /**
+   * Streams every page to {@code address}, one message per page, waiting for each message to be acknowledged
+   * before sending the next one. A message with a {@code null} body marks the end of the stream.
+   */
+  @Override
+  public WikiDatabaseService exportPages(String address, Handler<AsyncResult<Void>> resultHandler) {
+    SQLClientHelper.usingConnectionCompletable(dbClient, conn -> conn
+      .rxQueryStream(sqlQueries.get(SqlQuery.ALL_PAGES_DATA))
+      .flatMapPublisher(SQLRowStream::toFlowable)
+      .concatMapCompletable(row -> vertx.eventBus().rxSend(address, new JsonObject()
+        .put("id", row.getInteger(0))
+        .put("name", row.getString(1))
+        .put("content", row.getString(2))).ignoreElement()))
+      .doOnComplete(() -> vertx.eventBus().send(address, null))
+      .subscribe(CompletableHelper.toObserver(resultHandler));
+    return this;
+  }
 }
@@ -41,6 +41,10 @@ public class WikiDatabaseVerticle extends AbstractVerticle {
     sqlQueries.put(SqlQuery.DELETE_PAGE, queriesProps.getProperty("delete-page"));
     sqlQueries.put(SqlQuery.ALL_PAGES_DATA, queriesProps.getProperty("all-pages-data"));
     sqlQueries.put(SqlQuery.GET_PAGE_BY_ID, queriesProps.getProperty("get-page-by-id"));
+    sqlQueries.put(SqlQuery.PAGES_COLUMNS, queriesProps.getProperty("pages-columns"));
+    sqlQueries.put(SqlQuery.ADD_PAGES_REVISION_COLUMN, queriesProps.getProperty("add-pages-revision-column"));
+    sqlQueries.put(SqlQuery.ADD_PAGES_UPDATED_COLUMN, queriesProps.getProperty("add-pages-updated-column"));
+    sqlQueries.put(SqlQuery.GET_PAGE_VERSION, queriesProps.getProperty("get-page-version"));
     return sqlQueries;
   }
 
@@ -56,7 +60,7 @@ public class WikiDatabaseVerticle extends AbstractVerticle {
       .put("driver_class", config().getString(CONFIG_WIKIDB_JDBC_DRIVER_CLASS, DEFAULT_WIKIDB_JDBC_DRIVER_CLASS))
       .put("max_pool_size", config().getInteger(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, DEFAULT_JDBC_MAX_POOL_SIZE)));
 
-    WikiDatabaseService.create(dbClient, sqlQueries, ready -> {
+    WikiDatabaseService.create(vertx, dbClient, sqlQueries, ready -> {
       if (ready.succeeded()) {
         ServiceBinder binder = new ServiceBinder(vertx.getDelegate());
         binder
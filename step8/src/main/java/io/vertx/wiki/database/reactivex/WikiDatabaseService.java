@@ -2,7 +2,6 @@ package io.vertx.wiki.database.reactivex;
 
 import io.reactivex.Completable;
 import io.reactivex.Single;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.reactivex.CompletableHelper;
@@ -19,44 +18,38 @@ public class WikiDatabaseService {
   }
 
   public Single<JsonArray> rxFetchAllPages() {
-    Future<JsonArray> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchAllPages(future);
-    return SingleHelper.toSingle(future::setHandler);
+    return SingleHelper.toSingle(handler -> wikiDatabaseServiceVertxEBProxy.fetchAllPages(handler));
   }
 
   public Single<JsonObject> rxFetchPage(String name) {
-    Future<JsonObject> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchPage(name, future.completer());
-    return SingleHelper.toSingle(future::setHandler);
+    return SingleHelper.toSingle(handler -> wikiDatabaseServiceVertxEBProxy.fetchPage(name, handler));
+  }
+
+  public Single<JsonObject> rxFetchPageVersion(String name) {
+    return SingleHelper.toSingle(handler -> wikiDatabaseServiceVertxEBProxy.fetchPageVersion(name, handler));
   }
 
   public Completable rxCreatePage(String title, String markdown) {
-    Future<Void> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.createPage(title, markdown, future.completer());
-    return CompletableHelper.toCompletable(future::setHandler);
+    return CompletableHelper.toCompletable(handler -> wikiDatabaseServiceVertxEBProxy.createPage(title, markdown, handler));
   }
 
   public Completable rxSavePage(int id, String markdown) {
-    Future<Void> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.savePage(id, markdown, future.completer());
-    return CompletableHelper.toCompletable(future::setHandler);
+    return CompletableHelper.toCompletable(handler -> wikiDatabaseServiceVertxEBProxy.savePage(id, markdown, handler));
   }
 
   public Completable rxDeletePage(int id) {
-    Future<Void> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.deletePage(id, future.completer());
-    return CompletableHelper.toCompletable(future::setHandler);
+    return CompletableHelper.toCompletable(handler -> wikiDatabaseServiceVertxEBProxy.deletePage(id, handler));
   }
 
   public Single<List<JsonObject>> rxFetchAllPagesData() {
-    Future<List<JsonObject>> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchAllPagesData(future.completer());
-    return SingleHelper.toSingle(future::setHandler);
+    return SingleHelper.toSingle(handler -> wikiDatabaseServiceVertxEBProxy.fetchAllPagesData(handler));
   }
 
   public Single<JsonObject> rxFetchPageById(int id) {
-    Future<JsonObject> future = Future.future();
-    wikiDatabaseServiceVertxEBProxy.fetchPageById(id, future.completer());
-    return SingleHelper.toSingle(future::setHandler);
+    return SingleHelper.toSingle(handler -> wikiDatabaseServiceVertxEBProxy.fetchPageById(id, handler));
+  }
+
+  public Completable rxExportPages(String address) {
+    return CompletableHelper.toCompletable(handler -> wikiDatabaseServiceVertxEBProxy.exportPages(address, handler));
   }
 }
@@ -15,6 +15,10 @@ import static io.vertx.wiki.DatabaseConstants.*;
 
 @SuppressWarnings("Duplicates")
 public class AuthInitializerVerticle extends AbstractVerticle {
+  public static final String CONFIG_AUTH_SNAPSHOT_TTL = "auth.snapshot.ttl";
+
+  private static final long DEFAULT_AUTH_SNAPSHOT_TTL = 60_000;
+
   private final Logger logger = LoggerFactory.getLogger(AuthInitializerVerticle.class);
 
   @Override
@@ -70,8 +74,18 @@ public class AuthInitializerVerticle extends AbstractVerticle {
           }
         })
     ).subscribe(
-      () -> logger.info("Authentication database prepared"),
+      () -> {
+        logger.info("Authentication database prepared");
+        refreshSnapshot(dbClient);
+        vertx.setPeriodic(config().getLong(CONFIG_AUTH_SNAPSHOT_TTL, DEFAULT_AUTH_SNAPSHOT_TTL), id -> refreshSnapshot(dbClient));
+      },
       t -> logger.error("Could not prepare the authentication database")
     );
   }
+
+  private void refreshSnapshot(JDBCClient dbClient) {
+    AuthorizationSnapshot.load(dbClient).subscribe(
+      snapshot -> snapshot.publish(vertx),
+      t -> logger.error("Could not load the authorization snapshot", t));
+  }
 }
@@ -0,0 +1,80 @@
+package io.vertx.wiki.http;
+
+import io.reactivex.Single;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.ext.jdbc.JDBCClient;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of the {@code user_roles} and {@code roles_perms} tables, shared by all verticles of a Vert.x
+ * instance through a local map so that authorization checks do not query the database.
+ * <p>
+ * Authorities follow the {@code JDBCAuth} conventions: {@code role:<name>} checks a role, anything else a permission.
+ * <p>
+ * The wiki never changes roles itself: the {@link AuthInitializerVerticle} reloads the snapshot every
+ * {@code auth.snapshot.ttl} milliseconds, and that period is the only refresh. It is also the longest a role or
+ * permission removed from the database still grants access.
+ */
+public final class AuthorizationSnapshot implements Shareable {
+
+  private static final String SNAPSHOT_MAP = "auth.snapshot";
+  private static final String SNAPSHOT_KEY = "current";
+  private static final String ROLE_PREFIX = "role:";
+
+  private final Map<String, Set<String>> userRoles;
+  private final Map<String, Set<String>> rolePermissions;
+
+  private AuthorizationSnapshot(Map<String, Set<String>> userRoles, Map<String, Set<String>> rolePermissions) {
+    this.userRoles = userRoles;
+    this.rolePermissions = rolePermissions;
+  }
+
+  public static Single<AuthorizationSnapshot> load(JDBCClient dbClient) {
+    return dbClient.rxQuery("select username, role from user_roles")
+      .zipWith(dbClient.rxQuery("select role, perm from roles_perms"), (roles, perms) ->
+        new AuthorizationSnapshot(group(roles.getResults()), group(perms.getResults())));
+  }
+
+  public static AuthorizationSnapshot current(Vertx vertx) {
+    return vertx.sharedData().<String, AuthorizationSnapshot>getLocalMap(SNAPSHOT_MAP).get(SNAPSHOT_KEY);
+  }
+
+  public void publish(Vertx vertx) {
+    vertx.sharedData().<String, AuthorizationSnapshot>getLocalMap(SNAPSHOT_MAP).put(SNAPSHOT_KEY, this);
+  }
+
+  public boolean isAuthorized(String username, String authority) {
+    Set<String> roles = userRoles.getOrDefault(username, Collections.emptySet());
+    if (authority.startsWith(ROLE_PREFIX)) {
+      return roles.contains(authority.substring(ROLE_PREFIX.length()));
+    }
+    for (String role : roles) {
+      if (rolePermissions.getOrDefault(role, Collections.emptySet()).contains(authority)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Shareable copy() {
+    return this;
+  }
+
+  private static Map<String, Set<String>> group(List<JsonArray> rows) {
+    Map<String, Set<String>> groups = new HashMap<>();
+    for (JsonArray row : rows) {
+      groups.computeIfAbsent(row.getString(0), key -> new HashSet<>()).add(row.getString(1));
+    }
+    groups.replaceAll((key, values) -> Collections.unmodifiableSet(values));
+    return Collections.unmodifiableMap(groups);
+  }
+}
@@ -0,0 +1,69 @@
+package io.vertx.wiki.http;
+
+import io.vertx.reactivex.core.http.HttpServerRequest;
+import io.vertx.reactivex.core.http.HttpServerResponse;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * ETag and Last-Modified handling for page reads.
+ * <p>
+ * Validators are built from the page revision and update time kept in the {@code Pages} table, so a conditional
+ * request can be answered from those two columns alone.
+ */
+final class ConditionalRequests {
+
+  private ConditionalRequests() {
+  }
+
+  static boolean isConditional(HttpServerRequest request) {
+    return request.getHeader("If-None-Match") != null || request.getHeader("If-Modified-Since") != null;
+  }
+
+  /**
+   * Evaluates {@code If-None-Match} with the weak comparison function, or {@code If-Modified-Since} when there is no
+   * {@code If-None-Match} header. A {@code null} ETag never matches.
+   */
+  static boolean notModified(HttpServerRequest request, String etag, long lastModified) {
+    String ifNoneMatch = request.getHeader("If-None-Match");
+    if (ifNoneMatch != null) {
+      if (etag == null) {
+        return false;
+      }
+      for (String candidate : ifNoneMatch.split(",")) {
+        candidate = candidate.trim();
+        if (candidate.startsWith("W/")) {
+          candidate = candidate.substring(2);
+        }
+        if (candidate.equals("*") || candidate.equals(etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    String ifModifiedSince = request.getHeader("If-Modified-Since");
+    if (ifModifiedSince == null || lastModified <= 0) {
+      return false;
+    }
+    try {
+      long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().getEpochSecond();
+      return lastModified / 1000 <= since;
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+
+  static void putValidators(HttpServerResponse response, String etag, long lastModified) {
+    if (etag != null) {
+      response.putHeader("ETag", etag);
+    }
+    if (lastModified > 0) {
+      response.putHeader("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME
+        .format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(lastModified), ZoneOffset.UTC)));
+    }
+  }
+}
@@ -1,8 +1,8 @@
 package io.vertx.wiki.http;
 
-import com.github.rjeschke.txtmark.Processor;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import io.reactivex.Single;
 import io.vertx.core.Future;
 import io.vertx.core.http.HttpServerOptions;
@@ -14,7 +14,9 @@ import io.vertx.ext.auth.jwt.JWTAuthOptions;
 import io.vertx.ext.jwt.JWTOptions;
 import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.reactivex.core.AbstractVerticle;
+import io.vertx.reactivex.core.buffer.Buffer;
 import io.vertx.reactivex.core.http.HttpServer;
+import io.vertx.reactivex.core.http.HttpServerResponse;
 import io.vertx.reactivex.ext.auth.User;
 import io.vertx.reactivex.ext.auth.jdbc.JDBCAuth;
 import io.vertx.reactivex.ext.auth.jwt.JWTAuth;
@@ -27,11 +29,14 @@ import io.vertx.reactivex.ext.web.handler.*;
 import io.vertx.reactivex.ext.web.sstore.LocalSessionStore;
 import io.vertx.reactivex.ext.web.templ.freemarker.FreeMarkerTemplateEngine;
 import io.vertx.wiki.database.reactivex.WikiDatabaseService;
+import io.vertx.wiki.jfr.WikiEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
 
 import static io.vertx.wiki.DatabaseConstants.*;
 
@@ -42,15 +47,36 @@ public class HttpServerVerticle extends AbstractVerticle {
   public static final Logger LOGGER = LoggerFactory.getLogger(HttpServerVerticle.class);
   public static final String CONFIG_HTTP_SERVER_PORT = "http.server.port";
   public static final String CONFIG_WIKIDB_QUEUE = "wikidb.queue";
+  public static final String CONFIG_RENDER_CACHE_MAX_SIZE = "http.render_cache.max_size";
+  public static final String CONFIG_PAGE_CACHE_MAX_SIZE = "http.page_cache.max_size";
+
+  private static final String EXPORT_ADDRESS_PREFIX = "wiki.export.";
+
+  private static final long DEFAULT_RENDER_CACHE_MAX_SIZE = 8 * 1024 * 1024;
+  private static final long DEFAULT_PAGE_CACHE_MAX_SIZE = 8 * 1024 * 1024;
+  private static final long PAGE_IDS_MAX_SIZE = 64 * 1024;
+  private static final String PAGE_CACHE = "pages";
+  private static final String PAGE_IDS_CACHE = "page-ids";
 
   private FreeMarkerTemplateEngine templateEngine;
   private WikiDatabaseService dbService;
+  private MarkdownCache markdownCache;
+  private SharedCache<Integer, JsonObject> pageCache;
+  private SharedCache<String, Integer> pageIds;
+  private IndexView indexView;
   private WebClient webClient;
 
   @Override
   public void start(Future<Void> startFuture) throws Exception {
     String wikiDbQueue = config().getString(CONFIG_WIKIDB_QUEUE, "wikidb.queue");
     dbService = io.vertx.wiki.database.WikiDatabaseService.createProxy(vertx.getDelegate(), wikiDbQueue);
+    long renderCacheMaxSize = config().getLong(CONFIG_RENDER_CACHE_MAX_SIZE, DEFAULT_RENDER_CACHE_MAX_SIZE);
+    long pageCacheMaxSize = config().getLong(CONFIG_PAGE_CACHE_MAX_SIZE, DEFAULT_PAGE_CACHE_MAX_SIZE);
+    markdownCache = SharedCache.shared(vertx, MarkdownCache.NAME, () -> new MarkdownCache(renderCacheMaxSize));
+    pageCache = SharedCache.shared(vertx, PAGE_CACHE, () ->
+      new SharedCache<>(PAGE_CACHE, pageCacheMaxSize, page -> page.getString("rawContent").length()));
+    pageIds = SharedCache.shared(vertx, PAGE_IDS_CACHE, () -> new SharedCache<>(PAGE_IDS_CACHE, PAGE_IDS_MAX_SIZE, id -> 1));
+    SharedCache.listen(vertx);
     webClient = WebClient.create(vertx, new WebClientOptions()
       .setSsl(true)
       .setUserAgent("vert-x3"));
@@ -83,6 +109,7 @@ public class HttpServerVerticle extends AbstractVerticle {
     router.post("/action/create").handler(this::pageCreateHandler);
     router.post("/action/delete").handler(this::pageDeletionHandler);
     router.get("/action/backup").handler(this::backupHandler);
+    router.get("/action/export").handler(this::exportHandler);
     router.get("/login").handler(this::loginHandler);
     router.post("/login-auth").handler(FormLoginHandler.create(auth));
     router.get("/logout").handler(context -> {
@@ -114,9 +141,9 @@ public class HttpServerVerticle extends AbstractVerticle {
         .put("username", context.request().getHeader("login"))
         .put("password", context.request().getHeader("password"));
       auth.rxAuthenticate(creds).flatMap(user -> {
-        Single<Boolean> create = user.rxIsAuthorized("create");
-        Single<Boolean> delete = user.rxIsAuthorized("delete");
-        Single<Boolean> update = user.rxIsAuthorized("update");
+        Single<Boolean> create = isAuthorized(user, "create");
+        Single<Boolean> delete = isAuthorized(user, "delete");
+        Single<Boolean> update = isAuthorized(user, "update");
 
         return Single.zip(create, delete, update, (canCreate, canDelete, canUpdate) -> jwtAuth.generateToken(
           new JsonObject()
@@ -135,6 +162,11 @@ public class HttpServerVerticle extends AbstractVerticle {
 
     templateEngine = FreeMarkerTemplateEngine.create(vertx);
 
+    indexView = new IndexView(dbService, templateEngine);
+    indexView.rebuild();
+    vertx.eventBus().consumer("page.created", msg -> indexView.rebuild());
+    vertx.eventBus().consumer("page.deleted", msg -> indexView.rebuild());
+
     int portNumber = config().getInteger(CONFIG_HTTP_SERVER_PORT, 8080);
 
     server
@@ -152,18 +184,26 @@ public class HttpServerVerticle extends AbstractVerticle {
   }
 
   private void indexHandler(RoutingContext context) {
-    context.user().rxIsAuthorized("create")
+    isAuthorized(context.user(), "create")
       .flatMap(canCreatePage -> {
-        context.put("canCreatePage", canCreatePage);
-        return dbService.rxFetchAllPages();
-      }).flatMap(result -> {
+        Buffer markup = context.get("backup_gist_url") == null
+          ? indexView.render(canCreatePage, context.user().principal().getString("username"))
+          : null;
+        return markup != null ? Single.just(markup) : renderIndex(context, canCreatePage);
+      }).subscribe(markup -> {
+      context.response().putHeader("Content-Type", "text/html");
+      context.response().end(markup);
+    });
+  }
+
+  private Single<Buffer> renderIndex(RoutingContext context, boolean canCreatePage) {
+    context.put("canCreatePage", canCreatePage);
+    return dbService.rxFetchAllPages().flatMap(result -> {
       context.put("title", "Wiki home");
       context.put("pages", result.getList());
       context.put("username", context.user().principal().getString("username"));
-      return templateEngine.rxRender(context.data(), "templates/index.ftl");
-    }).subscribe(markup -> {
-      context.response().putHeader("Content-Type", "text/html");
-      context.response().end(markup);
+      return templateEngine.rxRender(context.data(), "templates/index.ftl")
+        .compose(WikiEvents.templateRender("templates/index.ftl", WikiEvents.NO_PAGE));
     });
   }
 
@@ -174,42 +214,96 @@ public class HttpServerVerticle extends AbstractVerticle {
 
   private void pageRenderingHandler(RoutingContext context) {
     User user = context.user();
-    user.rxIsAuthorized("update")
+    String requestedPage = context.request().getParam("page");
+    isAuthorized(user, "update")
       .flatMap(canSavePage -> {
         context.put("canSavePage", canSavePage);
-        return user.rxIsAuthorized("delete");
+        return isAuthorized(user, "delete");
       }).flatMap(canDeletePage -> {
       context.put("canDeletePage", canDeletePage);
-      String requestedPage = context.request().getParam("page");
-      context.put("title", requestedPage);
-      return dbService.rxFetchPage(requestedPage);
-    }).flatMap(payLoad -> {
+      if (!ConditionalRequests.isConditional(context.request())) {
+        return Single.just(false);
+      }
+      JsonObject cached = cachedPage(requestedPage);
+      return (cached != null ? Single.just(cached) : dbService.rxFetchPageVersion(requestedPage))
+        .map(version -> version.getBoolean("found") && notModified(context, version));
+    }).flatMapMaybe(notModified -> notModified ? Maybe.<Buffer>empty() : fetchPage(requestedPage).flatMap(payLoad -> {
 
+      context.put("title", requestedPage);
       boolean found = payLoad.getBoolean("found");
+      if (found) {
+        putValidators(context, payLoad);
+      }
       String rawContent = payLoad.getString("rawContent", EMPTY_PAGE_MARKDOWN);
       context.put("id", payLoad.getInteger("id", -1));
       context.put("newPage", found ? "no" : "yes");
       context.put("rawContent", rawContent);
-      context.put("content", Processor.process(rawContent));
+      context.put("content", markdownCache.render(payLoad.getInteger("id", -1), rawContent));
       context.put("timestamp", new Date().toString());
       context.put("username", user.principal().getString("username"));
-      return templateEngine.rxRender(context.data(), "templates/page.ftl");
-    }).subscribe(
+      return templateEngine.rxRender(context.data(), "templates/page.ftl")
+        .compose(WikiEvents.templateRender("templates/page.ftl", payLoad.getInteger("id", WikiEvents.NO_PAGE)));
+    }).toMaybe()).subscribe(
       markup -> {
         context.response().putHeader("Content-Type", "text/html");
         context.response().end(markup);
       },
-      context::fail
+      context::fail,
+      () -> context.response().setStatusCode(304).end()
     );
   }
 
+  private JsonObject cachedPage(String name) {
+    Integer id = pageIds.get(name);
+    return id != null ? pageCache.get(id) : null;
+  }
+
+  /*
+   * Pages are cached by id so that writes, which may only know the id, can invalidate them; the name to id mapping
+   * never goes stale in a harmful way since a page that is deleted and created again gets a new id.
+   */
+  private Single<JsonObject> fetchPage(String name) {
+    JsonObject cached = cachedPage(name);
+    if (cached != null) {
+      return Single.just(cached);
+    }
+    long version = pageCache.version();
+    return dbService.rxFetchPage(name).doOnSuccess(page -> {
+      if (page.getBoolean("found")) {
+        pageIds.put(name, page.getInteger("id"));
+        pageCache.put(page.getInteger("id"), page, version);
+      }
+    });
+  }
+
+  private boolean notModified(RoutingContext context, JsonObject version) {
+    if (ConditionalRequests.notModified(context.request(), pageEtag(context, version), version.getLong("updated"))) {
+      putValidators(context, version);
+      return true;
+    }
+    return false;
+  }
+
+  private void putValidators(RoutingContext context, JsonObject version) {
+    context.response().putHeader("Cache-Control", "private, no-cache");
+    ConditionalRequests.putValidators(context.response(), pageEtag(context, version), version.getLong("updated"));
+  }
+
+  /*
+   * The page markup also depends on who is viewing it, so the validator covers the user and their permissions.
+   */
+  private String pageEtag(RoutingContext context, JsonObject version) {
+    int viewer = Objects.hash(context.user().principal().getString("username"), context.get("canSavePage"), context.get("canDeletePage"));
+    return "\"" + version.getInteger("id") + "-" + version.getInteger("revision") + "-" + Integer.toHexString(viewer) + "\"";
+  }
+
   private void pageUpdateHandler(RoutingContext context) {
     String title = context.request().getParam("title");
 
     boolean pageCreation = "yes".equals(context.request().getParam("newPage"));
     String markdown = context.request().getParam("markdown");
     checkAuthorised(context, pageCreation ? "create" : "update")
-      .andThen(pageCreation ? dbService.rxCreatePage(title, markdown) : dbService.rxSavePage(Integer.valueOf(context.request().getParam("id")), markdown))
+      .andThen(pageCreation ? createPage(title, markdown) : savePage(Integer.valueOf(context.request().getParam("id")), markdown))
       .subscribe(() -> {
         context.response().setStatusCode(303);
         context.response().putHeader("Location", "/wiki/" + title);
@@ -217,8 +311,45 @@ public class HttpServerVerticle extends AbstractVerticle {
       }, t -> onError(context, t));
   }
 
+  private Completable createPage(String title, String markdown) {
+    return dbService.rxCreatePage(title, markdown)
+      .doOnComplete(() -> vertx.eventBus().publish("page.created", new JsonObject().put("name", title)));
+  }
+
+  private Completable savePage(int id, String markdown) {
+    return dbService.rxSavePage(id, markdown)
+      .doOnComplete(() -> {
+        invalidatePage(id);
+        vertx.eventBus().publish("page.saved", new JsonObject().put("id", id));
+      });
+  }
+
+  private Completable deletePage(int id) {
+    return dbService.rxDeletePage(id)
+      .doOnComplete(() -> {
+        invalidatePage(id);
+        vertx.eventBus().publish("page.deleted", new JsonObject().put("id", id));
+      });
+  }
+
+  private void invalidatePage(int id) {
+    SharedCache.publishInvalidation(vertx, PAGE_CACHE, id);
+    SharedCache.publishInvalidation(vertx, MarkdownCache.NAME, id);
+  }
+
+  /**
+   * Answers from the shared authorization snapshot, falling back to a database query until it has been loaded.
+   */
+  private Single<Boolean> isAuthorized(User user, String authority) {
+    AuthorizationSnapshot snapshot = AuthorizationSnapshot.current(vertx);
+    if (snapshot != null) {
+      return Single.just(snapshot.isAuthorized(user.principal().getString("username"), authority));
+    }
+    return user.rxIsAuthorized(authority);
+  }
+
   private Completable checkAuthorised(RoutingContext context, String authority) {
-    return context.user().rxIsAuthorized(authority)
+    return isAuthorized(context.user(), authority)
       .flatMapCompletable(authorized -> authorized ? Completable.complete() :
         Completable.error(new UnauthorizedThrowable(authority)));
   }
@@ -236,7 +367,7 @@ public class HttpServerVerticle extends AbstractVerticle {
 
   private void pageDeletionHandler(RoutingContext context) {
     checkAuthorised(context, "delete")
-      .andThen(dbService.rxDeletePage(Integer.parseInt(context.request().getParam("id"))))
+      .andThen(deletePage(Integer.parseInt(context.request().getParam("id"))))
       .subscribe(() -> {
         context.response().setStatusCode(303);
         context.response().putHeader("Location", "/");
@@ -244,28 +375,54 @@ public class HttpServerVerticle extends AbstractVerticle {
       }, t -> onError(context, t));
   }
 
+  /**
+   * Streams every page from the database service with backpressure: each page is only acknowledged, and the next
+   * one sent, once it has been requested downstream.
+   */
+  private Flowable<JsonObject> exportPages() {
+    return Flowable.defer(() -> {
+      String address = EXPORT_ADDRESS_PREFIX + UUID.randomUUID();
+      return vertx.eventBus().<JsonObject>consumer(address)
+        .toFlowable()
+        .takeWhile(message -> message.body() != null)
+        .map(message -> {
+          message.reply(null);
+          return message.body();
+        })
+        .mergeWith(Completable.defer(() -> dbService.rxExportPages(address)));
+    });
+  }
+
+  private void exportHandler(RoutingContext context) {
+    checkAuthorised(context, "role:writer")
+      .subscribe(() -> {
+        HttpServerResponse response = context.response();
+        response.setChunked(true);
+        response.putHeader("Content-Type", "application/x-ndjson");
+        exportPages()
+          .map(page -> Buffer.buffer(page.encode()).appendString("\n"))
+          .subscribe(response.toSubscriber().onError(t -> {
+            LOGGER.error("Could not export the wiki", t);
+            response.close();
+          }));
+      }, t -> onError(context, t));
+  }
+
   private void backupHandler(RoutingContext context) {
+    Buffer header = Buffer.buffer("{\"language\":\"plaintext\",\"title\":\"vertx-wiki-backup\",\"public\":true,\"files\":[");
+    Flowable<Buffer> files = exportPages()
+      .map(page -> new JsonObject()
+        .put("name", page.getString("name"))
+        .put("content", page.getString("content"))
+        .encode())
+      .zipWith(Flowable.range(0, Integer.MAX_VALUE), (file, index) -> Buffer.buffer(index == 0 ? file : "," + file));
+    Flowable<Buffer> payload = Flowable.concat(Flowable.just(header), files, Flowable.just(Buffer.buffer("]}")));
+
     checkAuthorised(context, "role:writer")
-      .andThen(dbService.rxFetchAllPagesData())
-      .map(pages -> {
-        JsonArray filesObject = new JsonArray();
-        JsonObject payload = new JsonObject()
-          .put("files", filesObject)
-          .put("language", "plaintext")
-          .put("title", "vertx-wiki-backup")
-          .put("public", true);
-        pages.forEach(page -> {
-          JsonObject fileObject = new JsonObject();
-          fileObject.put("name", page.getString("NAME"));
-          fileObject.put("content", page.getString("CONTENT"));
-          filesObject.add(fileObject);
-        });
-        return payload;
-      }).flatMap(body ->
-      webClient.post(443, "snippets.glot.io", "/snippets")
+      .andThen(webClient.post(443, "snippets.glot.io", "/snippets")
         .putHeader("Content-Type", "application/json")
         .as(BodyCodec.jsonObject())
-        .rxSendJsonObject(body))
+        .rxSendStream(payload))
       .subscribe(response -> {
         if (response.statusCode() == 200) {
           String url = "https://glot.io/snippets/" + response.body().getString("id");
@@ -305,7 +462,7 @@ public class HttpServerVerticle extends AbstractVerticle {
             .put("name", dbObject.getString("name"))
             .put("id", dbObject.getInteger("id"))
             .put("markdown", dbObject.getString("content"))
-            .put("html", Processor.process(dbObject.getString("content")));
+            .put("html", markdownCache.render(id, dbObject.getString("content")));
           apiResponse(context, 200, "page", payload);
         } else {
           apiFailure(context, 404, "There is no page with ID " + id);
@@ -319,7 +476,7 @@ public class HttpServerVerticle extends AbstractVerticle {
       if (!validateJsonPageDocument(context, page, "name", "markdown")) {
         return;
       }
-      dbService.rxCreatePage(page.getString("name"), page.getString("markdown"))
+      createPage(page.getString("name"), page.getString("markdown"))
         .subscribe(() -> apiResponse(context, 201, null, null), t -> apiFailure(context, t));
     } else {
       context.fail(401);
@@ -334,7 +491,7 @@ public class HttpServerVerticle extends AbstractVerticle {
       if (!validateJsonPageDocument(context, page, "markdown")) {
         return;
       }
-      dbService.rxSavePage(id, page.getString("markdown"))
+      savePage(id, page.getString("markdown"))
         .subscribe(() -> apiResponse(context, 200, null, null),
           t -> apiFailure(context, t));
     } else {
@@ -346,7 +503,7 @@ public class HttpServerVerticle extends AbstractVerticle {
   private void apiDeletePage(RoutingContext context) {
     if (context.user().principal().getBoolean("canDelete", false)) {
       int id = Integer.valueOf(context.request().getParam("id"));
-      dbService.rxDeletePage(id)
+      deletePage(id)
         .subscribe(() -> apiResponse(context, 200, null, null), t -> apiFailure(context, t));
     } else {
       context.fail(401);
@@ -369,6 +526,7 @@ public class HttpServerVerticle extends AbstractVerticle {
   private void loginHandler(RoutingContext context) {
     context.put("title", "Login");
     templateEngine.rxRender(context.data(), "templates/login.ftl")
+      .compose(WikiEvents.templateRender("templates/login.ftl", WikiEvents.NO_PAGE))
       .subscribe(markup -> {
         context.response().putHeader("Content-Type", "text/html");
         context.response().end(markup);
@@ -378,11 +536,15 @@ public class HttpServerVerticle extends AbstractVerticle {
   private void apiResponse(RoutingContext context, int statusCode, String jsonField, Object jsonData) {
     context.response().setStatusCode(statusCode);
     context.response().putHeader("Content-Type", "application/json");
+    context.response().end(apiEnvelope(jsonField, jsonData));
+  }
+
+  static String apiEnvelope(String jsonField, Object jsonData) {
     JsonObject wrapper = new JsonObject().put("success", true);
     if (jsonField != null && jsonData != null) {
       wrapper.put(jsonField, jsonData);
     }
-    context.response().end(wrapper.encode());
+    return wrapper.encode();
   }
 
   private void apiFailure(RoutingContext context, Throwable t) {
@@ -0,0 +1,108 @@
+package io.vertx.wiki.http;
+
+import io.reactivex.Single;
+import io.vertx.core.json.JsonArray;
+import io.vertx.reactivex.core.buffer.Buffer;
+import io.vertx.reactivex.ext.web.templ.freemarker.FreeMarkerTemplateEngine;
+import io.vertx.wiki.database.reactivex.WikiDatabaseService;
+import io.vertx.wiki.jfr.WikiEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Materialized view of the wiki home page: {@code templates/index.ftl} pre-rendered once for each value of
+ * {@code canCreatePage}.
+ * <p>
+ * The user name is the only other per-request part of the page, so each variant is rendered with a marker in its
+ * place and kept as the buffers before and after it. Rebuilds run asynchronously and are coalesced, and requests are
+ * served from the previous view until the new one is ready. Not thread-safe: each verticle instance owns its view.
+ */
+class IndexView {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexView.class);
+
+  private static final String USERNAME_MARKER = "\u0000username\u0000";
+
+  private final WikiDatabaseService dbService;
+  private final FreeMarkerTemplateEngine templateEngine;
+
+  private Variant readOnly;
+  private Variant editable;
+  private boolean rebuilding;
+  private boolean stale;
+
+  IndexView(WikiDatabaseService dbService, FreeMarkerTemplateEngine templateEngine) {
+    this.dbService = dbService;
+    this.templateEngine = templateEngine;
+  }
+
+  /**
+   * @return the page markup, or {@code null} when the view has not been built yet
+   */
+  Buffer render(boolean canCreatePage, String username) {
+    Variant variant = canCreatePage ? editable : readOnly;
+    if (variant == null) {
+      return null;
+    }
+    return Buffer.buffer(variant.before.length() + username.length() + variant.after.length())
+      .appendBuffer(variant.before)
+      .appendString(username)
+      .appendBuffer(variant.after);
+  }
+
+  void rebuild() {
+    if (rebuilding) {
+      stale = true;
+      return;
+    }
+    rebuilding = true;
+    dbService.rxFetchAllPages()
+      .flatMap(pages -> render(pages, false).zipWith(render(pages, true), (readOnly, editable) -> {
+        this.readOnly = readOnly;
+        this.editable = editable;
+        return pages.size();
+      }))
+      .doFinally(() -> {
+        rebuilding = false;
+        if (stale) {
+          stale = false;
+          rebuild();
+        }
+      })
+      .subscribe(count -> LOGGER.debug("Home page view rebuilt with " + count + " pages"),
+        t -> LOGGER.error("Could not rebuild the home page view", t));
+  }
+
+  private Single<Variant> render(JsonArray pages, boolean canCreatePage) {
+    Map<String, Object> data = new HashMap<>();
+    data.put("title", "Wiki home");
+    data.put("pages", pages.getList());
+    data.put("canCreatePage", canCreatePage);
+    data.put("username", USERNAME_MARKER);
+    return templateEngine.rxRender(data, "templates/index.ftl")
+      .compose(WikiEvents.templateRender("templates/index.ftl", WikiEvents.NO_PAGE))
+      .map(markup -> {
+        String text = markup.toString("UTF-8");
+        int marker = text.indexOf(USERNAME_MARKER);
+        if (marker < 0) {
+          return new Variant(markup, Buffer.buffer());
+        }
+        return new Variant(
+          Buffer.buffer(text.substring(0, marker), "UTF-8"),
+          Buffer.buffer(text.substring(marker + USERNAME_MARKER.length()), "UTF-8"));
+      });
+  }
+
+  private static final class Variant {
+    final Buffer before;
+    final Buffer after;
+
+    Variant(Buffer before, Buffer after) {
+      this.before = before;
+      this.after = after;
+    }
+  }
+}
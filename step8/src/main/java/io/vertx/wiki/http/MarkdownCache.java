@@ -0,0 +1,44 @@
+package io.vertx.wiki.http;
+
+import com.github.rjeschke.txtmark.Processor;
+
+/**
+ * Bounded LRU cache of rendered page HTML, keyed by page id.
+ * <p>
+ * Entries keep the markdown they were rendered from and are only served for an equal markdown, so a stale entry can
+ * never be served; invalidation only frees memory early. Comparing lengths and hashes first keeps most mismatches
+ * cheap. The size bound is expressed in characters of cached markdown and HTML.
+ */
+public class MarkdownCache extends SharedCache<Integer, MarkdownCache.Entry> {
+
+  public static final String NAME = "render";
+
+  public MarkdownCache(long maxSize) {
+    super(NAME, maxSize, Entry::size);
+  }
+
+  public String render(int pageId, String markdown) {
+    Entry entry = get(pageId, cached -> cached.markdown.length() == markdown.length()
+      && cached.markdown.hashCode() == markdown.hashCode() && cached.markdown.equals(markdown));
+    if (entry != null) {
+      return entry.html;
+    }
+    String html = Processor.process(markdown);
+    put(pageId, new Entry(markdown, html));
+    return html;
+  }
+
+  static final class Entry {
+    final String markdown;
+    final String html;
+
+    Entry(String markdown, String html) {
+      this.markdown = markdown;
+      this.html = html;
+    }
+
+    long size() {
+      return markdown.length() + html.length();
+    }
+  }
+}
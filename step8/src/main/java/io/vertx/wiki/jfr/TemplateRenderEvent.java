@@ -0,0 +1,40 @@
+package io.vertx.wiki.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.vertx.wiki.TemplateRender")
+@Label("Template Render")
+@Category({"Wiki", "Rendering"})
+@Description("A rendering of a FreeMarker template to HTML")
+@StackTrace(false)
+class TemplateRenderEvent extends Event {
+
+  @Label("Template")
+  String template;
+
+  @Label("Page Id")
+  @Description("The page rendered, or -1")
+  int pageId;
+
+  @Label("Output Size")
+  @DataAmount
+  long outputSize;
+
+  @Label("Succeeded")
+  boolean succeeded;
+
+  static TemplateRenderEvent start() {
+    TemplateRenderEvent event = new TemplateRenderEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+}
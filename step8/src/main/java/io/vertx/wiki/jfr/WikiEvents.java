@@ -0,0 +1,61 @@
+package io.vertx.wiki.jfr;
+
+import io.reactivex.Single;
+import io.reactivex.SingleTransformer;
+import io.vertx.reactivex.core.buffer.Buffer;
+
+/**
+ * Java Flight Recorder events of the wiki, under the {@code Wiki} category of a recording started with
+ * {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}.
+ * <p>
+ * Each {@code beginX} method returns an opaque event to pass to the matching {@code endX} method, or {@code null}
+ * when no recording enables the event, so that the wiki pays a field check per operation outside of recordings.
+ * <p>
+ * The {@code jdk.jfr} API comes with JDK 8u262 and 11. On older runtimes, no event class is ever loaded and all the
+ * methods do nothing.
+ */
+public final class WikiEvents {
+
+  static final boolean AVAILABLE = available();
+
+  public static final int NO_PAGE = -1;
+
+  private WikiEvents() {
+  }
+
+  private static boolean available() {
+    try {
+      Class.forName("jdk.jfr.FlightRecorder");
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  public static Object beginTemplateRender() {
+    return AVAILABLE ? TemplateRenderEvent.start() : null;
+  }
+
+  public static void endTemplateRender(Object token, String template, int pageId, long outputSize, boolean succeeded) {
+    if (token != null) {
+      TemplateRenderEvent event = (TemplateRenderEvent) token;
+      event.template = template;
+      event.pageId = pageId;
+      event.outputSize = outputSize;
+      event.succeeded = succeeded;
+      event.commit();
+    }
+  }
+
+  /**
+   * Records each subscription to a template rendering as a {@code TemplateRender} event.
+   */
+  public static SingleTransformer<Buffer, Buffer> templateRender(String template, int pageId) {
+    return upstream -> Single.defer(() -> {
+      Object event = beginTemplateRender();
+      return upstream
+        .doOnSuccess(markup -> endTemplateRender(event, template, pageId, markup.length(), true))
+        .doOnError(t -> endTemplateRender(event, template, pageId, 0, false));
+    });
+  }
+}
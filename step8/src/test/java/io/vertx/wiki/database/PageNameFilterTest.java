@@ -0,0 +1,38 @@
+package io.vertx.wiki.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageNameFilterTest {
+
+  @Test
+  public void no_false_negatives_and_few_false_positives() {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      names.add("Page " + i);
+    }
+    PageNameFilter filter = PageNameFilter.of(names);
+    for (int i = 2000; i < 3999; i++) {
+      filter.add("Page " + i);
+    }
+    assertFalse(filter.isFull());
+    filter.add("Page 3999");
+    assertTrue(filter.isFull());
+
+    for (int i = 0; i < 4000; i++) {
+      assertTrue(filter.mightContain("Page " + i));
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (filter.mightContain("Missing " + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 300, falsePositives + " false positives");
+  }
+}
@@ -2,6 +2,7 @@ package io.vertx.wiki.database;
 
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
@@ -84,4 +85,50 @@ class WikiDatabaseVerticleTest {
         });
       }, testContext::failNow);
   }
+
+  @Test
+  public void test_exportPages(Vertx vertx, VertxTestContext testContext) {
+    JsonArray exported = new JsonArray();
+    vertx.eventBus().<JsonObject>consumer("test.export", message -> {
+      if (message.body() != null) {
+        exported.add(message.body());
+        message.reply(null);
+      }
+    });
+
+    service.rxCreatePage("A", "abc")
+      .andThen(service.rxCreatePage("B", "123"))
+      .andThen(service.rxExportPages("test.export"))
+      .subscribe(() -> {
+        testContext.verify(() -> {
+          assertEquals(2, exported.size());
+          assertEquals("A", exported.getJsonObject(0).getString("name"));
+          assertEquals("abc", exported.getJsonObject(0).getString("content"));
+          assertEquals("B", exported.getJsonObject(1).getString("name"));
+          assertEquals("123", exported.getJsonObject(1).getString("content"));
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
+
+  @Test
+  public void test_fetchPageVersion(VertxTestContext testContext) {
+    service.rxCreatePage("Versioned", "v1")
+      .andThen(service.rxFetchPageVersion("Versioned"))
+      .flatMap(first -> {
+        testContext.verify(() -> {
+          assertTrue(first.getBoolean("found"));
+          assertEquals(0, first.getInteger("revision").intValue());
+          assertTrue(first.getLong("updated") > 0);
+        });
+        return service.rxSavePage(first.getInteger("id"), "v2")
+          .andThen(service.rxFetchPageVersion("Versioned"));
+      })
+      .subscribe(second -> {
+        testContext.verify(() -> {
+          assertEquals(1, second.getInteger("revision").intValue());
+          testContext.completeNow();
+        });
+      }, testContext::failNow);
+  }
 }
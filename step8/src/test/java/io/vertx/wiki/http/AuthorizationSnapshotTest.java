@@ -0,0 +1,44 @@
+package io.vertx.wiki.http;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE;
+import static io.vertx.wiki.DatabaseConstants.CONFIG_WIKIDB_JDBC_URL;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(VertxExtension.class)
+class AuthorizationSnapshotTest {
+
+  @Test
+  public void snapshot_answers_like_jdbc_auth(Vertx vertx, VertxTestContext testContext) {
+    JsonObject conf = new JsonObject()
+      .put(CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:mem:testdb;shutdown=true")
+      .put(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 4);
+    io.vertx.reactivex.core.Vertx rxVertx = io.vertx.reactivex.core.Vertx.newInstance(vertx);
+
+    vertx.deployVerticle(new AuthInitializerVerticle(), new DeploymentOptions().setConfig(conf), testContext.succeeding(id ->
+      vertx.setPeriodic(50, timerId -> {
+        AuthorizationSnapshot snapshot = AuthorizationSnapshot.current(rxVertx);
+        if (snapshot != null) {
+          vertx.cancelTimer(timerId);
+          testContext.verify(() -> {
+            assertTrue(snapshot.isAuthorized("root", "delete"));
+            assertTrue(snapshot.isAuthorized("foo", "create"));
+            assertTrue(snapshot.isAuthorized("foo", "role:writer"));
+            assertTrue(snapshot.isAuthorized("bar", "update"));
+            assertFalse(snapshot.isAuthorized("bar", "delete"));
+            assertFalse(snapshot.isAuthorized("baz", "update"));
+            assertFalse(snapshot.isAuthorized("nobody", "role:admin"));
+            testContext.completeNow();
+          });
+        }
+      })));
+  }
+}
@@ -0,0 +1,57 @@
+package io.vertx.wiki.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@ExtendWith(VertxExtension.class)
+class SharedCacheTest {
+
+  @Test
+  public void shared_and_invalidated_over_the_event_bus(Vertx vertx, VertxTestContext testContext) {
+    io.vertx.reactivex.core.Vertx rxVertx = io.vertx.reactivex.core.Vertx.newInstance(vertx);
+    SharedCache<Integer, String> cache = SharedCache.shared(rxVertx, "test", () -> new SharedCache<>("test", 10, String::length));
+    SharedCache<Integer, String> other = SharedCache.shared(rxVertx, "test", () -> new SharedCache<>("test", 10, String::length));
+    assertSame(cache, other);
+
+    long version = cache.version();
+    cache.put(1, "abcd", version);
+    cache.put(2, "efgh", version);
+    cache.put(3, "ijkl", version);
+    assertNull(cache.get(1));
+    assertEquals("efgh", other.get(2));
+
+    SharedCache.listen(rxVertx);
+    SharedCache.publishInvalidation(rxVertx, "test", 2);
+    vertx.setTimer(100, id -> testContext.verify(() -> {
+      assertNull(cache.get(2));
+      cache.put(2, "stale", version);
+      assertNull(cache.get(2));
+      assertEquals("ijkl", cache.get(3));
+      assertEquals(1, (int) cache.stats().getInteger("evictions"));
+      assertEquals(1, (int) cache.stats().getInteger("invalidations"));
+      testContext.completeNow();
+    }));
+  }
+
+  @Test
+  public void evicts_sampled_least_recently_used_entries() {
+    SharedCache<Integer, String> cache = new SharedCache<>("sampled", 100, String::length);
+    cache.put(0, "x");
+    for (int key = 1; key < 1000; key++) {
+      assertEquals("x", cache.get(0));
+      cache.put(key, "x");
+    }
+    assertEquals("x", cache.get(0));
+    assertEquals("x", cache.get(999));
+    assertEquals(100, (int) cache.stats().getInteger("entries"));
+    assertEquals(100L, (long) cache.stats().getLong("size"));
+    assertEquals(900L, (long) cache.stats().getLong("evictions"));
+  }
+}
@@ -0,0 +1,44 @@
+package io.vertx.wiki.jfr;
+
+import io.reactivex.Single;
+import io.vertx.reactivex.core.buffer.Buffer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class WikiEventsTest {
+
+  @Test
+  public void template_renders_are_recorded() throws Exception {
+    assumeTrue(WikiEvents.AVAILABLE, "This JVM has no flight recorder");
+    Path file = Files.createTempFile("wiki-events-test-", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("io.vertx.wiki.TemplateRender");
+      recording.start();
+      Single.just(Buffer.buffer("<html></html>"))
+        .compose(WikiEvents.templateRender("templates/page.ftl", 42))
+        .blockingGet();
+      recording.stop();
+      recording.dump(file);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      assertEquals(1, events.size());
+      RecordedEvent event = events.get(0);
+      assertEquals("templates/page.ftl", event.getString("template"));
+      assertEquals(42, event.getInt("pageId"));
+      assertEquals(13L, event.getLong("outputSize"));
+      assertTrue(event.getBoolean("succeeded"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}